@@ -20,6 +20,10 @@
 ## e.g. class is TC_API_SmokeTest
 # mvn test -Dtest=TC_API_SmokeTest
 
+## If you want to record the run with Java Flight Recorder please use the following command
+## the HTTP exchanges, test steps and configuration loads are recorded as apitest.* events
+# mvn test -Djfr.args="-XX:StartFlightRecording=filename=test-results/suite.jfr,settings=profile"
+
 ## You can combine all the possible flags in one command
 # mvn test -Puat -Dgroups=SMOKE -Dtest=TC_API_SmokeTest -Dsuite.xml=src/test/resources/test-suites/TS_API_Users.xml
 
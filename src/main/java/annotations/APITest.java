@@ -35,5 +35,24 @@ public @interface APITest {
     
     String filePath() default "";
     
+    // Streams the file of filePath, or syntheticUploadSize generated bytes, as a chunked multipart upload
+    boolean streamingUpload() default false;
+    
+    long syntheticUploadSize() default 0;
+    
     RequestType requestType() default RequestType.REST;
+    
+    // Sends the request warmUp times unmeasured, then samples times, and fails the test if the measured calls break a budget
+    // The calls are neither captured nor attached to the report, their latency is measured at the transport
+    int samples() default 1;
+    
+    int warmUp() default 0;
+    
+    // Latency budgets in milliseconds, 0 means no budget
+    long maxP95Millis() default 0;
+    
+    long maxP99Millis() default 0;
+    
+    // Highest share of measured calls, from 0 to 1, that may fail or answer with a 4xx or 5xx status
+    double maxErrorRate() default 1.0;
 }
@@ -0,0 +1,26 @@
+package models;
+
+import domain.interfaces.IEndpoint;
+import io.restassured.http.Method;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Descriptor of one request of a batch sent with Rest.sendBatch.
+ */
+@Getter
+@Builder
+public class BatchRequest {
+    @Builder.Default
+    private Method method = Method.GET;
+    private IEndpoint basePath;
+    @Builder.Default
+    private String route = "";
+    private Object body;
+    private Map<String, Object> pathParams;
+    private Map<String, Object> queryParams;
+    private File file;
+}
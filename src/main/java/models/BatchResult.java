@@ -0,0 +1,49 @@
+package models;
+
+import io.restassured.response.Response;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Outcome of a batch of requests, in the order the requests were given, together with the aggregate timing of the batch.
+ * A request that failed without a response has a null response and its exception in the errors at the same index.
+ */
+@Getter
+public class BatchResult {
+    private final List<Response> responses;
+    private final List<Throwable> errors;
+    private final int concurrency;
+    private final long wallClockMillis;
+    private final long totalResponseTimeMillis;
+    private final long maxResponseTimeMillis;
+    
+    public BatchResult(List<Response> responses, List<Throwable> errors, int concurrency, long wallClockMillis) {
+        this.responses = Collections.unmodifiableList(responses);
+        this.errors = Collections.unmodifiableList(errors);
+        this.concurrency = concurrency;
+        this.wallClockMillis = wallClockMillis;
+        this.totalResponseTimeMillis = responses.stream().filter(Objects::nonNull).mapToLong(Response::getTime).sum();
+        this.maxResponseTimeMillis = responses.stream().filter(Objects::nonNull).mapToLong(Response::getTime).max().orElse(0);
+    }
+    
+    public int size() {
+        return responses.size();
+    }
+    
+    public Response getResponse(int index) {
+        return responses.get(index);
+    }
+    
+    public long getFailedCount() {
+        return errors.stream().filter(Objects::nonNull).count();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d requests (%d failed) with concurrency %d in %d ms, total response time %d ms, max %d ms",
+                size(), getFailedCount(), concurrency, wallClockMillis, totalResponseTimeMillis, maxResponseTimeMillis);
+    }
+}
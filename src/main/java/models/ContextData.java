@@ -10,4 +10,9 @@ public class ContextData {
     private String id;
     private String testName;
     private Long responseTime;
+    private Long uploadedBytes;
+    private Long uploadTime;
+    private DownloadResult lastDownload;
+    private TransferSize transferSize;
+    private PhaseTimings phaseTimings;
 }
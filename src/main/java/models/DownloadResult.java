@@ -0,0 +1,34 @@
+package models;
+
+import io.restassured.response.Response;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of a download streamed to disk, with the checksums computed while the body was written.
+ * The response is kept for its status and headers, its body has already been consumed.
+ */
+@Getter
+public class DownloadResult {
+    private final Path path;
+    private final long size;
+    private final String sha256;
+    private final long crc32;
+    private final long millis;
+    private final Response response;
+    
+    public DownloadResult(Path path, long size, String sha256, long crc32, long millis, Response response) {
+        this.path = path;
+        this.size = size;
+        this.sha256 = sha256;
+        this.crc32 = crc32;
+        this.millis = millis;
+        this.response = response;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d bytes to %s in %d ms, sha256 %s, crc32 %08x", size, path, millis, sha256, crc32);
+    }
+}
@@ -0,0 +1,46 @@
+package models;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Time spent in each phase of one exchange: resolving the host, opening the TCP connection, the TLS handshake,
+ * writing the request, waiting for the first byte of the response and downloading its body.
+ * The phases of the connection are zero when a pooled connection was reused, and null when the transport does not report them,
+ * which is the case of the HTTP/2 transport.
+ */
+@Getter
+public class PhaseTimings {
+    private final Duration dns;
+    private final Duration connect;
+    private final Duration tls;
+    private final Duration send;
+    private final Duration ttfb;
+    private final Duration download;
+    private final Duration total;
+    private final Boolean connectionReused;
+    
+    public PhaseTimings(Duration dns, Duration connect, Duration tls, Duration send, Duration ttfb, Duration download, Duration total,
+                        Boolean connectionReused) {
+        this.dns = dns;
+        this.connect = connect;
+        this.tls = tls;
+        this.send = send;
+        this.ttfb = ttfb;
+        this.download = download;
+        this.total = total;
+        this.connectionReused = connectionReused;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("dns %s, connect %s, tls %s, send %s, ttfb %s, download %s, total %s ms, %s",
+                millis(dns), millis(connect), millis(tls), millis(send), millis(ttfb), millis(download), millis(total),
+                connectionReused == null ? "connection reuse unknown" : connectionReused ? "reused connection" : "new connection");
+    }
+    
+    private static String millis(Duration duration) {
+        return duration == null ? "n/a" : String.format("%.3f", duration.toNanos() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,38 @@
+package models;
+
+import lombok.Getter;
+
+/**
+ * Bytes of one exchange as they were sent and received on the wire and after decoding, with the content encodings used.
+ * The encodings are null when a body was sent or received as it is.
+ */
+@Getter
+public class TransferSize {
+    private final long requestBytes;
+    private final long requestWireBytes;
+    private final String requestEncoding;
+    private final long responseBytes;
+    private final long responseWireBytes;
+    private final String responseEncoding;
+    
+    public TransferSize(long requestBytes, long requestWireBytes, String requestEncoding,
+                        long responseBytes, long responseWireBytes, String responseEncoding) {
+        this.requestBytes = requestBytes;
+        this.requestWireBytes = requestWireBytes;
+        this.requestEncoding = requestEncoding;
+        this.responseBytes = responseBytes;
+        this.responseWireBytes = responseWireBytes;
+        this.responseEncoding = responseEncoding;
+    }
+    
+    public long getSavedBytes() {
+        return requestBytes - requestWireBytes + responseBytes - responseWireBytes;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("request %d bytes, %d on the wire (%s), response %d bytes, %d on the wire (%s)",
+                requestBytes, requestWireBytes, requestEncoding == null ? "identity" : requestEncoding,
+                responseBytes, responseWireBytes, responseEncoding == null ? "identity" : responseEncoding);
+    }
+}
@@ -0,0 +1,115 @@
+package models;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Content of a file part sent with Rest.sendStreamingUpload: a file on disk, read through a FileChannel,
+ * or synthetic content of a given size generated while it is sent, so no upload is ever held in memory.
+ */
+@Getter
+public class UploadSource {
+    private static final String OCTET_STREAM = "application/octet-stream";
+    
+    private final String fileName;
+    private final long size;
+    private final String mimeType;
+    private final Path path;
+    
+    private UploadSource(String fileName, long size, String mimeType, Path path) {
+        this.fileName = fileName;
+        this.size = size;
+        this.mimeType = mimeType;
+        this.path = path;
+    }
+    
+    /**
+     * Creates the upload of a file on disk.
+     *
+     * @param path the file to upload
+     * @return the upload source
+     */
+    public static UploadSource ofFile(Path path) {
+        try {
+            return new UploadSource(path.getFileName().toString(), Files.size(path), OCTET_STREAM, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot upload " + path, e);
+        }
+    }
+    
+    /**
+     * Creates the upload of generated content, the same pseudo-random bytes in every run.
+     *
+     * @param fileName the file name of the part
+     * @param size     the number of bytes to send
+     * @return the upload source
+     */
+    public static UploadSource synthetic(String fileName, long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Synthetic upload size must not be negative, was " + size);
+        }
+        return new UploadSource(fileName, size, OCTET_STREAM, null);
+    }
+    
+    /**
+     * Opens the content of the upload. The stream reads the file in the chunks the HTTP client asks for.
+     *
+     * @return a new stream over the content
+     * @throws IOException if the file cannot be opened
+     */
+    public InputStream openStream() throws IOException {
+        return path != null ? Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ)) : new SyntheticInputStream(size);
+    }
+    
+    @Override
+    public String toString() {
+        return (path != null ? path.toString() : "synthetic " + fileName) + " (" + size + " bytes)";
+    }
+    
+    /**
+     * Repeats a block of pseudo-random bytes, which do not compress, until the size is reached.
+     */
+    private static final class SyntheticInputStream extends InputStream {
+        private static final byte[] BLOCK = new byte[64 * 1024];
+        
+        static {
+            new Random(42).nextBytes(BLOCK);
+        }
+        
+        private final long size;
+        private long position;
+        
+        private SyntheticInputStream(long size) {
+            this.size = size;
+        }
+        
+        @Override
+        public int read() {
+            if (position == size) {
+                return -1;
+            }
+            return BLOCK[(int) (position++ % BLOCK.length)] & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position == size) {
+                return -1;
+            }
+            int blockOffset = (int) (position % BLOCK.length);
+            int count = (int) Math.min(Math.min(length, size - position), BLOCK.length - blockOffset);
+            System.arraycopy(BLOCK, blockOffset, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
@@ -4,12 +4,15 @@ import domain.RestEndpointEnum;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import models.BatchRequest;
+import models.BatchResult;
 import org.slf4j.Logger;
 import utils.config.EnvDataConfig;
 import utils.config.ResourcesConfig;
 import utils.service.implementation.Rest;
 
 import java.io.File;
+import java.util.List;
 import java.util.Map;
 
 public class RestCommonRequests {
@@ -21,6 +24,7 @@ public class RestCommonRequests {
     protected EnvDataConfig envDataConfig;
     protected ResourcesConfig resourcesConfig;
     protected Response response;
+    protected BatchResult batchResult;
     
     public RestCommonRequests(Rest rest) {
         this.rest = rest;
@@ -398,4 +402,27 @@ public class RestCommonRequests {
         this.response = rest.putRequest(requestSpec, basePath, route, body, pathParams, queryParams, file);
         return response;
     }
+    
+    /**
+     * Sends a batch of requests with the concurrency limit of the environment.
+     *
+     * @param requests The descriptors of the requests.
+     * @return The responses in the order of the requests, with the aggregate timing of the batch.
+     */
+    public BatchResult sendBatch(List<BatchRequest> requests) {
+        this.batchResult = rest.sendBatch(requests);
+        return batchResult;
+    }
+    
+    /**
+     * Sends a batch of requests with at most the given number of requests in flight at any time.
+     *
+     * @param requests    The descriptors of the requests.
+     * @param concurrency The maximum number of requests in flight.
+     * @return The responses in the order of the requests, with the aggregate timing of the batch.
+     */
+    public BatchResult sendBatch(List<BatchRequest> requests, int concurrency) {
+        this.batchResult = rest.sendBatch(requests, concurrency);
+        return batchResult;
+    }
 }
@@ -1,6 +1,7 @@
 package services.rest;
 
 import io.restassured.response.Response;
+import models.DownloadResult;
 import org.slf4j.Logger;
 import org.testng.Assert;
 import utils.config.EnvDataConfig;
@@ -60,6 +61,42 @@ public class RestCommonValidations {
         return this;
     }
     
+    /**
+     * Method to verify the size of the last download.
+     *
+     * @param expectedSize the expected number of bytes
+     */
+    public RestCommonValidations verifyDownloadSize(long expectedSize) {
+        Assert.assertEquals(getLastDownload().getSize(), expectedSize, "Size of " + getLastDownload().getPath());
+        return this;
+    }
+    
+    /**
+     * Method to verify the SHA-256 checksum of the last download.
+     *
+     * @param expectedSha256 the expected checksum, in hexadecimal
+     */
+    public RestCommonValidations verifyDownloadSha256(String expectedSha256) {
+        Assert.assertEquals(getLastDownload().getSha256(), expectedSha256.toLowerCase(), "SHA-256 of " + getLastDownload().getPath());
+        return this;
+    }
+    
+    /**
+     * Method to verify the CRC32 checksum of the last download.
+     *
+     * @param expectedCrc32 the expected checksum
+     */
+    public RestCommonValidations verifyDownloadCrc32(long expectedCrc32) {
+        Assert.assertEquals(getLastDownload().getCrc32(), expectedCrc32, "CRC32 of " + getLastDownload().getPath());
+        return this;
+    }
+    
+    public DownloadResult getLastDownload() {
+        DownloadResult download = rest.context().getLastDownload();
+        Assert.assertNotNull(download, "No file was downloaded");
+        return download;
+    }
+    
     public Response setLastResponse(Response response) {
         lastResponse = response;
         return lastResponse;
@@ -9,18 +9,31 @@ import org.testng.Assert;
 import org.testng.ITestContext;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
+import utils.config.ConfigReloader;
 import utils.config.EnvDataConfig;
 import utils.config.TestDataConfig;
+import utils.config.TestDataStream;
 import utils.helpers.APITestRunner;
+import utils.jfr.TestStepEvent;
+import utils.metrics.MetricsExporter;
+import utils.service.http.AllureAttachmentWriter;
+import utils.service.http.CompressionFilter;
+import utils.service.http.EndpointLatencies;
+import utils.service.http.HttpConnectionPool;
+import utils.service.http.PayloadCache;
+import utils.service.http.TransportMetrics;
 import utils.service.implementation.WebService;
 import utils.service.interfaces.IBaseService;
 
 import java.io.File;
+import java.util.Iterator;
 
 import static com.github.automatedowl.tools.AllureEnvironmentWriter.allureEnvironmentWriter;
 
 public abstract class BaseTest implements IBaseTest {
     
+    public static final String TEST_CASE_DATA = "testCaseData";
+    public static final String TEST_CASE_DATA_STREAM = "testCaseDataStream";
     private static final Logger logger = org.slf4j.LoggerFactory.getLogger(BaseTest.class);
     private static boolean logged = false;
     private IBaseService webService;
@@ -36,6 +49,8 @@ public abstract class BaseTest implements IBaseTest {
     @BeforeSuite(alwaysRun = true)
     public void baseTestBeforeSuite() {
         logOnce();
+        ConfigReloader.startIfEnabled();
+        MetricsExporter.startIfEnabled();
         setAllureEnvironment();
     }
     
@@ -69,10 +84,21 @@ public abstract class BaseTest implements IBaseTest {
     @AfterSuite(alwaysRun = true)
     public void baseTestAfterSuite() {
         after("BaseTest After Suite");
+        HttpConnectionPool.get().logStats();
+        TransportMetrics.logStats();
+        EndpointLatencies.report();
+        AllureAttachmentWriter.get().flush();
+        AllureAttachmentWriter.get().logStats();
+        PayloadCache.get().logStats();
+        CompressionFilter.get().logStats();
+        MetricsExporter.stop();
+        MetricsExporter.export();
+        ConfigReloader.stop();
     }
     
     public IBaseService before(String testStepDescription) {
         logger.info("BEFORE TEST: {}", testStepDescription);
+        TestStepEvent.open("before", testStepDescription);
         webService.context().setStepDescription(testStepDescription);
         webService.rest().context().setStepDescription(testStepDescription);
         webService.soap().context().setStepDescription(testStepDescription);
@@ -81,6 +107,7 @@ public abstract class BaseTest implements IBaseTest {
     
     public IBaseService after(String testStepDescription) {
         logger.info("AFTER TEST: {}", testStepDescription);
+        TestStepEvent.after(testStepDescription);
         webService.context().setStepDescription(testStepDescription);
         webService.rest().context().setStepDescription(testStepDescription);
         webService.soap().context().setStepDescription(testStepDescription);
@@ -90,6 +117,7 @@ public abstract class BaseTest implements IBaseTest {
     @Step
     public IBaseService step(String testStepDescription) {
         logger.info("TEST STEP: {}", testStepDescription);
+        TestStepEvent.open("step", testStepDescription);
         webService.context().setStepDescription(testStepDescription);
         webService.rest().context().setStepDescription(testStepDescription);
         webService.soap().context().setStepDescription(testStepDescription);
@@ -102,7 +130,31 @@ public abstract class BaseTest implements IBaseTest {
     
     public TestDataConfig getTestCaseData(Integer instance) {
         return instance == null ? new TestDataConfig(getTestSuiteName(getFullPath()), getTestCaseName(getFullPath())) :
-                new TestDataConfig(getTestSuiteName(getFullPath()), getTestCaseName(getFullPath()), instance);
+                TestDataStream.getRow(getTestSuiteName(getFullPath()), getTestCaseName(getFullPath()), instance);
+    }
+    
+    /**
+     * Parallel data provider over the rows of the test case data set, one TestDataConfig per invocation.
+     * Use it with {@code @Test(dataProvider = BaseTest.TEST_CASE_DATA)} and a TestDataConfig parameter.
+     * TestNG reads all the rows before the first invocation, so they are all held in memory: for large data sets use TEST_CASE_DATA_STREAM.
+     *
+     * @return an iterator over the rows of the test case data set
+     */
+    @DataProvider(name = TEST_CASE_DATA, parallel = true)
+    public Iterator<Object[]> testCaseDataProvider() {
+        return TestDataStream.open(getTestSuiteName(getFullPath()), getTestCaseName(getFullPath()));
+    }
+    
+    /**
+     * Sequential data provider streaming the rows of the test case data set, one TestDataConfig per invocation.
+     * Use it with {@code @Test(dataProvider = BaseTest.TEST_CASE_DATA_STREAM)} and a TestDataConfig parameter.
+     * TestNG pulls a row only when it runs its invocation, so memory stays bounded by one row whatever the size of the data set.
+     *
+     * @return an iterator over the rows of the test case data set
+     */
+    @DataProvider(name = TEST_CASE_DATA_STREAM)
+    public Iterator<Object[]> testCaseDataStreamProvider() {
+        return TestDataStream.open(getTestSuiteName(getFullPath()), getTestCaseName(getFullPath()));
     }
     
     private String getFullPath() {
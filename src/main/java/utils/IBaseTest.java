@@ -8,6 +8,8 @@ import org.testng.annotations.*;
 import utils.config.TestDataConfig;
 import utils.service.interfaces.IBaseService;
 
+import java.util.Iterator;
+
 public interface IBaseTest {
     
     @BeforeSuite(alwaysRun = true)
@@ -39,4 +41,8 @@ public interface IBaseTest {
     
     TestDataConfig getTestCaseData(Integer instance);
     
+    Iterator<Object[]> testCaseDataProvider();
+    
+    Iterator<Object[]> testCaseDataStreamProvider();
+    
 }
@@ -3,6 +3,7 @@ package utils.common;
 import org.testng.IRetryAnalyzer;
 import org.testng.ITestResult;
 import utils.config.EnvDataConfig;
+import utils.metrics.RunMetrics;
 
 public class Retry implements IRetryAnalyzer {
     
@@ -20,6 +21,7 @@ public class Retry implements IRetryAnalyzer {
             if (retryCount < maxRetryCount) {
                 retryCount++;
                 iTestResult.setStatus(ITestResult.FAILURE);
+                RunMetrics.recordRetry(iTestResult);
                 return true;
             }
         } else {
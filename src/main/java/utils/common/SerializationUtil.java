@@ -1,9 +1,22 @@
 package utils.common;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 @UtilityClass
 public class SerializationUtil {
     
@@ -11,4 +24,138 @@ public class SerializationUtil {
     public String serialize(Object object, ObjectMapper objectMapper) {
         return objectMapper.writeValueAsString(object);
     }
+    
+    /**
+     * Serializes an object with the cached writer of its class of the shared mapper.
+     *
+     * @param object the object to serialize
+     * @return the JSON document
+     */
+    @SneakyThrows
+    public String serialize(Object object) {
+        return SharedObjectMapper.writerFor(object.getClass()).writeValueAsString(object);
+    }
+    
+    /**
+     * Deserializes a JSON document with the cached reader of the type of the shared mapper.
+     *
+     * @param json the JSON document
+     * @param type the class to deserialize into
+     * @return the deserialized object
+     */
+    @SneakyThrows
+    public <T> T deserialize(String json, Class<T> type) {
+        return SharedObjectMapper.readerFor(type).readValue(json);
+    }
+    
+    /**
+     * Deserializes a JSON document straight from a stream with the cached reader of the type of the shared mapper.
+     * The stream is closed once the document is read.
+     *
+     * @param inputStream the JSON document
+     * @param type        the class to deserialize into
+     * @return the deserialized object
+     */
+    @SneakyThrows
+    public <T> T deserialize(InputStream inputStream, Class<T> type) {
+        try (InputStream in = inputStream) {
+            return SharedObjectMapper.readerFor(type).readValue(in);
+        }
+    }
+    
+    /**
+     * Deserializes a JSON document straight from a stream, without reading it into a String first.
+     * The stream is closed once the document is read.
+     *
+     * @param inputStream  the JSON document
+     * @param type         the class to deserialize into
+     * @param objectMapper the mapper to use
+     * @return the deserialized object
+     */
+    @SneakyThrows
+    public <T> T deserialize(InputStream inputStream, Class<T> type, ObjectMapper objectMapper) {
+        try (InputStream in = inputStream) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+    
+    /**
+     * Streams the elements of a JSON array one at a time, parsing each element only when it is consumed.
+     * The array is either the root of the document or the value of the dotted field path, e.g. "data".
+     * The returned stream must be closed, it holds the underlying input stream open.
+     *
+     * @param inputStream  the JSON document
+     * @param arrayPath    the dotted path of the array field, null or empty for a root array
+     * @param type         the class of the elements
+     * @param objectMapper the mapper to use
+     * @return a lazy stream over the elements of the array
+     */
+    public <T> Stream<T> streamArray(InputStream inputStream, String arrayPath, Class<T> type, ObjectMapper objectMapper) {
+        return streamArray(inputStream, arrayPath, objectMapper.getFactory(), objectMapper.readerFor(type));
+    }
+    
+    /**
+     * Streams the elements of a JSON array one at a time with the cached reader of the element type of the shared mapper.
+     * The returned stream must be closed, it holds the underlying input stream open.
+     *
+     * @param inputStream the JSON document
+     * @param arrayPath   the dotted path of the array field, null or empty for a root array
+     * @param type        the class of the elements
+     * @return a lazy stream over the elements of the array
+     */
+    public <T> Stream<T> streamArray(InputStream inputStream, String arrayPath, Class<T> type) {
+        return streamArray(inputStream, arrayPath, SharedObjectMapper.get().getFactory(), SharedObjectMapper.readerFor(type));
+    }
+    
+    @SneakyThrows
+    private <T> Stream<T> streamArray(InputStream inputStream, String arrayPath, JsonFactory jsonFactory, ObjectReader reader) {
+        JsonParser parser = jsonFactory.createParser(inputStream);
+        try {
+            moveToArray(parser, arrayPath);
+            if (parser.nextToken() == JsonToken.END_ARRAY) {
+                // MappingIterator would read the END_ARRAY of an empty array as an element
+                parser.close();
+                return Stream.empty();
+            }
+            MappingIterator<T> elements = reader.readValues(parser);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(elements, Spliterator.ORDERED), false)
+                    .onClose(() -> {
+                        try {
+                            parser.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+    
+    private void moveToArray(JsonParser parser, String arrayPath) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (arrayPath != null && !arrayPath.isEmpty()) {
+            for (String field : arrayPath.split("\\.")) {
+                token = moveToField(parser, token, field, arrayPath);
+            }
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Expected a JSON array at '" + (arrayPath == null ? "" : arrayPath) + "' but found " + token);
+        }
+    }
+    
+    private JsonToken moveToField(JsonParser parser, JsonToken token, String field, String arrayPath) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected a JSON object before '" + field + "' of '" + arrayPath + "' but found " + token);
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals(name)) {
+                return value;
+            }
+            parser.skipChildren();
+        }
+        throw new IllegalArgumentException("Field '" + field + "' of '" + arrayPath + "' does not exist");
+    }
 }
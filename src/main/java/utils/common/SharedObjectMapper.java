@@ -0,0 +1,102 @@
+package utils.common;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.datatype.jsr310.ser.OffsetDateTimeSerializer;
+import io.restassured.config.ObjectMapperConfig;
+import io.restassured.mapper.ObjectMapperDeserializationContext;
+import io.restassured.mapper.ObjectMapperSerializationContext;
+import lombok.SneakyThrows;
+
+import java.lang.reflect.Type;
+import java.text.SimpleDateFormat;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Jackson configuration of the run, shared by the framework code and by the object mapping of RestAssured.
+ * <p>
+ * The mapper is configured once, and the ObjectReader and ObjectWriter of each type are created on first use and then reused,
+ * so the serializers and deserializers of a DTO are looked up only once per run.
+ * Readers and writers are immutable and safe to share between threads.
+ */
+public final class SharedObjectMapper {
+    
+    private static final ObjectMapper MAPPER = createMapper();
+    private static final Map<Type, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final Map<Type, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+    private static final ObjectMapperConfig REST_ASSURED_CONFIG = ObjectMapperConfig.objectMapperConfig()
+            .defaultObjectMapper(new RestAssuredObjectMapper());
+    
+    private SharedObjectMapper() {
+    }
+    
+    /**
+     * Returns the shared mapper. It must not be reconfigured, the cached readers and writers would not see the change.
+     *
+     * @return the shared ObjectMapper
+     */
+    public static ObjectMapper get() {
+        return MAPPER;
+    }
+    
+    /**
+     * Returns the cached reader of a type.
+     *
+     * @param type the type to read
+     * @return the ObjectReader of the type
+     */
+    public static ObjectReader readerFor(Type type) {
+        return READERS.computeIfAbsent(type, key -> MAPPER.readerFor(MAPPER.constructType(key)));
+    }
+    
+    /**
+     * Returns the cached writer of a type.
+     *
+     * @param type the type to write
+     * @return the ObjectWriter of the type
+     */
+    public static ObjectWriter writerFor(Type type) {
+        return WRITERS.computeIfAbsent(type, key -> MAPPER.writerFor(MAPPER.constructType(key)));
+    }
+    
+    /**
+     * Returns the object mapper configuration that makes RestAssured use the shared mapper for .body(Object) and .as(Class).
+     *
+     * @return the RestAssured ObjectMapperConfig
+     */
+    public static ObjectMapperConfig restAssuredConfig() {
+        return REST_ASSURED_CONFIG;
+    }
+    
+    private static ObjectMapper createMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ"));
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.registerModule(new SimpleModule().addSerializer(OffsetDateTime.class, OffsetDateTimeSerializer.INSTANCE));
+        return mapper;
+    }
+    
+    private static final class RestAssuredObjectMapper implements io.restassured.mapper.ObjectMapper {
+        @Override
+        @SneakyThrows
+        public Object deserialize(ObjectMapperDeserializationContext context) {
+            return readerFor(context.getType()).readValue(context.getDataToDeserialize().asInputStream());
+        }
+        
+        @Override
+        @SneakyThrows
+        public Object serialize(ObjectMapperSerializationContext context) {
+            Object object = context.getObjectToSerialize();
+            return writerFor(object.getClass()).writeValueAsString(object);
+        }
+    }
+}
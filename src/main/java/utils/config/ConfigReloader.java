@@ -0,0 +1,145 @@
+package utils.config;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Watches the environment and secrets properties files and publishes a new immutable snapshot whenever one of them changes.
+ * Files are parsed on a background daemon thread, so request threads never block on file I/O and
+ * always read either the previous or the new snapshot as a whole.
+ * <p>
+ * Disabled by default, enable it for long-running runs with -Dconfig.reload=true.
+ */
+public final class ConfigReloader {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(ConfigReloader.class);
+    // Time given to editors and deploy scripts to finish writing a file before it is parsed
+    private static final long DEBOUNCE_MS = 200;
+    private static ConfigReloader instance;
+    
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Map<Path, Runnable> watchedFiles = new HashMap<>();
+    private final Thread watcher;
+    
+    private ConfigReloader(ResourcesConfig resourcesConfig) throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        watch(resourcesConfig.getEnvironmentProperties(), EnvironmentSnapshot::reload);
+        watch(resourcesConfig.getSecretProperties(), SecretsSnapshot::reload);
+        watcher = new Thread(this::run, "config-reloader");
+        watcher.setDaemon(true);
+    }
+    
+    /**
+     * Starts watching the configuration files if the "config.reload" system property is true.
+     */
+    public static synchronized void startIfEnabled() {
+        if (Boolean.getBoolean("config.reload") && instance == null) {
+            start();
+        }
+    }
+    
+    /**
+     * Starts watching the environment and secrets properties files of the selected profile.
+     *
+     * @return the running ConfigReloader
+     */
+    public static synchronized ConfigReloader start() {
+        if (instance == null) {
+            try {
+                instance = new ConfigReloader(new ResourcesConfig());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not watch the configuration files", e);
+            }
+            instance.watcher.start();
+            logger.info("Watching configuration files for changes: {}", instance.watchedFiles.keySet());
+        }
+        return instance;
+    }
+    
+    /**
+     * Stops watching the configuration files. The last published snapshots stay in use.
+     */
+    public static synchronized void stop() {
+        if (instance != null) {
+            try {
+                instance.watchService.close();
+            } catch (IOException e) {
+                logger.warn("Could not close the configuration watcher", e);
+            }
+            instance.watcher.interrupt();
+            instance = null;
+        }
+    }
+    
+    private void watch(String file, Consumer<String> reload) throws IOException {
+        Path path = Path.of(file).toAbsolutePath().normalize();
+        if (!Files.isRegularFile(path)) {
+            logger.debug("Not watching {}, the file does not exist", path);
+            return;
+        }
+        Path directory = path.getParent();
+        if (!directories.containsValue(directory)) {
+            WatchKey key = directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            directories.put(key, directory);
+        }
+        watchedFiles.put(path, () -> reload.accept(file));
+    }
+    
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                Thread.sleep(DEBOUNCE_MS);
+                Set<Path> changed = new LinkedHashSet<>();
+                Path directory = directories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        changed.addAll(watchedFiles.keySet());
+                    } else if (directory != null) {
+                        Path file = directory.resolve((Path) event.context());
+                        if (watchedFiles.containsKey(file)) {
+                            changed.add(file);
+                        }
+                    }
+                }
+                key.reset();
+                changed.forEach(this::reload);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // The reloader was stopped
+        }
+    }
+    
+    private void reload(Path file) {
+        try {
+            if (!Files.isRegularFile(file) || Files.size(file) == 0) {
+                logger.warn("Keeping the current configuration, {} is missing or empty", file);
+                return;
+            }
+            watchedFiles.get(file).run();
+            logger.info("Reloaded configuration from {}", file);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Keeping the current configuration, failed to reload {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package utils.config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Streams a CSV data set one line at a time.
+ * The first line holds the parameter names, every following line is a row.
+ * Fields may be quoted to contain commas or line breaks, and doubled quotes inside a quoted field stand for a quote.
+ * Unquoted fields are trimmed, quoted fields are kept as they are.
+ */
+final class CsvTestDataStream extends TestDataStream {
+    
+    private static final char DELIMITER = ',';
+    private static final char QUOTE = '"';
+    
+    private final BufferedReader reader;
+    private final List<String> header;
+    
+    CsvTestDataStream(String file) throws IOException {
+        super(file);
+        this.reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+        String headerLine = reader.readLine();
+        if (headerLine != null && headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+        this.header = headerLine == null ? List.of() : parseRecord(headerLine);
+    }
+    
+    @Override
+    protected TestDataConfig readRow() throws IOException {
+        String line = nextLine(reader);
+        if (line == null) {
+            return null;
+        }
+        List<String> values = parseRecord(line);
+        Properties row = new Properties();
+        for (int i = 0; i < header.size(); i++) {
+            row.put(header.get(i), i < values.size() ? values.get(i) : "");
+        }
+        return toRow(row);
+    }
+    
+    @Override
+    protected boolean skipRow() throws IOException {
+        String line = nextLine(reader);
+        if (line == null) {
+            return false;
+        }
+        // A record goes on to the next line while it has an odd number of quotes, doubled quotes leave the count even
+        boolean quoted = hasOddQuotes(line);
+        while (quoted) {
+            quoted = !hasOddQuotes(nextRecordLine());
+        }
+        return true;
+    }
+    
+    @Override
+    protected void release() throws IOException {
+        reader.close();
+    }
+    
+    private List<String> parseRecord(String line) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldQuoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == QUOTE && i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                        field.append(QUOTE);
+                        i++;
+                    } else if (c == QUOTE) {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == QUOTE) {
+                    if (!fieldQuoted && field.toString().isBlank()) {
+                        // The blanks before the opening quote are not part of the field
+                        field.setLength(0);
+                    }
+                    quoted = true;
+                    fieldQuoted = true;
+                } else if (c == DELIMITER) {
+                    fields.add(fieldQuoted ? field.toString() : field.toString().trim());
+                    field.setLength(0);
+                    fieldQuoted = false;
+                } else if (!fieldQuoted || !Character.isWhitespace(c)) {
+                    // The blanks after the closing quote are not part of the field
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = nextRecordLine();
+            field.append('\n');
+        }
+        fields.add(fieldQuoted ? field.toString() : field.toString().trim());
+        return fields;
+    }
+    
+    // Reads the next line of a quoted field that spans lines, keeping blank lines as part of the field
+    private String nextRecordLine() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("Quoted field is not closed at the end of " + source);
+        }
+        return line;
+    }
+    
+    private static boolean hasOddQuotes(String line) {
+        boolean odd = false;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == QUOTE) {
+                odd = !odd;
+            }
+        }
+        return odd;
+    }
+}
@@ -1,13 +1,22 @@
 package utils.config;
 
+import utils.enums.AttachmentBodyPolicy;
 import utils.enums.Environment;
+import utils.enums.HttpCompression;
+import utils.enums.HttpLogMode;
+import utils.enums.HttpTransport;
+import utils.enums.PayloadCacheKey;
+import utils.jfr.ConfigLoadEvent;
 
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Properties;
 
 public class EnvDataConfig {
@@ -19,14 +28,31 @@ public class EnvDataConfig {
     }
     
     protected static Properties loadProperties(String testDataFile) {
-        Properties prop = new Properties();
         try {
-            InputStream inputStream = new FileInputStream(testDataFile);
-            Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-            prop.load(reader);
+            return loadPropertiesOrFail(testDataFile);
         } catch (Exception e) {
             e.printStackTrace();
+            return new Properties();
+        }
+    }
+    
+    /**
+     * Loads a properties file, failing instead of returning what was parsed before an error.
+     *
+     * @param testDataFile the path of the properties file
+     * @return the properties of the file
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file contains a malformed Unicode escape
+     */
+    protected static Properties loadPropertiesOrFail(String testDataFile) throws IOException {
+        ConfigLoadEvent event = new ConfigLoadEvent();
+        event.begin();
+        Properties prop = new Properties();
+        try (InputStream inputStream = new FileInputStream(testDataFile);
+             Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            prop.load(reader);
         }
+        event.commit(testDataFile, "properties", prop.size());
         return prop;
     }
     
@@ -40,43 +66,130 @@ public class EnvDataConfig {
         return result;
     }
     
-    private static String removeTrailingSlash(String url) {
-        if (url.endsWith("/")) {
-            url = url.substring(0, url.length() - 1);
-        }
-        return url;
-    }
-    
     public int getRetry() {
-        return Integer.parseInt(getEnvProperties().getProperty("retry"));
+        return getEnvSnapshot().getRetry();
     }
     
     public String getURL(String applicationName) {
-        return removeTrailingSlash(getEnvProperties().getProperty(applicationName + ".url"));
+        return getEnvSnapshot().getUrl(applicationName + ".url");
     }
     
     public String getRestApiUrl() {
-        return removeTrailingSlash(getEnvProperties().getProperty("rest.url"));
+        return getEnvSnapshot().getRestApiUrl();
     }
     
     public String getIdentityUrl() {
-        String identityUrl = getEnvProperties().getProperty("rest.identity.url");
-        if (identityUrl != null) {
-            return removeTrailingSlash(identityUrl);
-        }
-        return getRestApiUrl();
+        return getEnvSnapshot().getIdentityUrl();
     }
     
     public String getRestBaseUri() {
-        String baseUri = getEnvProperties().getProperty("rest.baseUri");
-        if (baseUri == null) {
-            return getRestApiUrl();
-        }
-        return removeTrailingSlash(baseUri);
+        return getEnvSnapshot().getRestBaseUri();
     }
     
     public String getSoapApiUrl() {
-        return removeTrailingSlash(getEnvProperties().getProperty("soap.url"));
+        return getEnvSnapshot().getSoapApiUrl();
+    }
+    
+    public int getHttpPoolMaxTotal() {
+        return getEnvSnapshot().getIntProperty("http.pool.maxTotal", 50);
+    }
+    
+    public int getHttpPoolMaxPerRoute() {
+        return getEnvSnapshot().getIntProperty("http.pool.maxPerRoute", 20);
+    }
+    
+    public int getHttpKeepAliveSeconds() {
+        return getEnvSnapshot().getIntProperty("http.keepAlive.seconds", 30);
+    }
+    
+    public int getHttpIdleTimeoutSeconds() {
+        return getEnvSnapshot().getIntProperty("http.pool.idleTimeout.seconds", 60);
+    }
+    
+    public int getHttpSocketTimeoutSeconds() {
+        return getEnvSnapshot().getIntProperty("http.socketTimeout.seconds", 60);
+    }
+    
+    public int getHttpBatchConcurrency() {
+        return getEnvSnapshot().getIntProperty("http.batch.concurrency", getHttpPoolMaxPerRoute());
+    }
+    
+    public HttpTransport getHttpTransport() {
+        String transport = getEnvSnapshot().getProperty("http.transport");
+        return transport == null || transport.isBlank() ? HttpTransport.HTTP_1_1 : HttpTransport.fromString(transport.trim());
+    }
+    
+    public HttpLogMode getHttpLogMode() {
+        String mode = getEnvSnapshot().getProperty("http.log.mode");
+        return mode == null || mode.isBlank() ? HttpLogMode.ALWAYS : HttpLogMode.fromString(mode.trim());
+    }
+    
+    public int getHttpLogCaptureSize() {
+        return getEnvSnapshot().getIntProperty("http.log.capture.size", 20);
+    }
+    
+    public boolean isHttpLogCaptureBodies() {
+        String bodies = getEnvSnapshot().getProperty("http.log.capture.bodies");
+        return bodies == null || bodies.isBlank() || Boolean.parseBoolean(bodies.trim());
+    }
+    
+    public int getAllureAttachmentMaxBodyChars() {
+        return getEnvSnapshot().getIntProperty("allure.attachments.maxBodyChars", 65536);
+    }
+    
+    public AttachmentBodyPolicy getAllureAttachmentLargeBodies() {
+        String policy = getEnvSnapshot().getProperty("allure.attachments.largeBodies");
+        return policy == null || policy.isBlank() ? AttachmentBodyPolicy.TRUNCATE : AttachmentBodyPolicy.fromString(policy.trim());
+    }
+    
+    public boolean isAllureAttachmentCompress() {
+        String compress = getEnvSnapshot().getProperty("allure.attachments.compress");
+        return compress != null && Boolean.parseBoolean(compress.trim());
+    }
+    
+    public int getHttpBodyCacheSize() {
+        return getEnvSnapshot().getIntProperty("http.body.cache.size", 0);
+    }
+    
+    public PayloadCacheKey getHttpBodyCacheKeys() {
+        String keys = getEnvSnapshot().getProperty("http.body.cache.keys");
+        return keys == null || keys.isBlank() ? PayloadCacheKey.IDENTITY : PayloadCacheKey.fromString(keys.trim());
+    }
+    
+    public HttpCompression getHttpCompressionRequest() {
+        String compression = getEnvSnapshot().getProperty("http.compression.request");
+        return compression == null || compression.isBlank() ? HttpCompression.NONE : HttpCompression.fromString(compression.trim());
+    }
+    
+    public int getHttpCompressionRequestMinBytes() {
+        return getEnvSnapshot().getIntProperty("http.compression.request.minBytes", 1024);
+    }
+    
+    /**
+     * Retrieves the encodings offered in the Accept-Encoding header of the requests, gzip and deflate if the property is not set.
+     *
+     * @return the accepted encodings, empty if the property is none
+     */
+    public List<HttpCompression> getHttpCompressionAccept() {
+        String accept = getEnvSnapshot().getProperty("http.compression.accept");
+        if (accept == null || accept.isBlank()) {
+            return List.of(HttpCompression.GZIP, HttpCompression.DEFLATE);
+        }
+        return Arrays.stream(accept.split(","))
+                .map(String::trim)
+                .map(HttpCompression::fromString)
+                .filter(compression -> compression != HttpCompression.NONE)
+                .distinct()
+                .toList();
+    }
+    
+    public String getMetricsExportDir() {
+        String directory = getEnvSnapshot().getProperty("metrics.export.dir");
+        return directory == null || directory.isBlank() ? "test-results" : directory.trim();
+    }
+    
+    public int getMetricsExportIntervalSeconds() {
+        return getEnvSnapshot().getIntProperty("metrics.export.interval.seconds", 60);
     }
     
     /**
@@ -95,23 +208,17 @@ public class EnvDataConfig {
      * @return The environment ID extracted from the environment properties path.
      */
     protected String getEnvironmentIdFromSelectedProfile() {
-        return extractProfileFromEnvPropertiesPath(resourcesConfig.getEnvironmentProperties());
-    }
-    
-    private String extractProfileFromEnvPropertiesPath(String envPropertiesPath) {
-        String config = "config/";
-        String extracted = envPropertiesPath.substring(envPropertiesPath.indexOf(config) + config.length(), envPropertiesPath.lastIndexOf("."));
-        extracted = extracted.replace("/", "-");
-        return extracted;
+        return getEnvSnapshot().getEnvironmentId();
     }
     
     /**
-     * This function retrieves the environment properties by loading the environment
-     * properties file and converting it into a Properties object.
+     * This function retrieves the current immutable snapshot of the environment properties.
+     * The properties file is parsed once and shared by every EnvDataConfig instance, until the ConfigReloader publishes a new snapshot.
+     * Callers that need several values from the same version of the file should read them from a single snapshot.
      *
-     * @return The Properties object containing the environment properties.
+     * @return The EnvironmentSnapshot containing the environment properties.
      */
-    private Properties getEnvProperties() {
-        return getProperties(loadProperties(resourcesConfig.getEnvironmentProperties()));
+    public EnvironmentSnapshot getEnvSnapshot() {
+        return EnvironmentSnapshot.of(resourcesConfig.getEnvironmentProperties());
     }
 }
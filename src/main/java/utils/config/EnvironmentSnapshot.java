@@ -0,0 +1,146 @@
+package utils.config;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable view of an environment properties file.
+ * Each file is parsed once and the resulting snapshot is shared by every thread until the ConfigReloader publishes a newer one,
+ * so that config lookups are plain field reads instead of file I/O.
+ */
+@Getter
+public final class EnvironmentSnapshot {
+    
+    private static final Map<String, EnvironmentSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+    private static final List<String> REQUIRED_PROPERTIES = List.of("rest.url", "soap.url");
+    
+    private final String sourceFile;
+    private final String environmentId;
+    private final String restApiUrl;
+    private final String restBaseUri;
+    private final String identityUrl;
+    private final String soapApiUrl;
+    private final Integer retry;
+    private final Map<String, String> properties;
+    
+    private EnvironmentSnapshot(String sourceFile, Properties source) {
+        Map<String, String> values = new HashMap<>();
+        for (String name : source.stringPropertyNames()) {
+            values.put(name, source.getProperty(name));
+        }
+        this.sourceFile = sourceFile;
+        this.properties = Map.copyOf(values);
+        this.environmentId = extractProfileFromEnvPropertiesPath(sourceFile);
+        this.restApiUrl = removeTrailingSlash(properties.get("rest.url"));
+        this.restBaseUri = properties.containsKey("rest.baseUri") ? removeTrailingSlash(properties.get("rest.baseUri")) : restApiUrl;
+        this.identityUrl = properties.containsKey("rest.identity.url") ? removeTrailingSlash(properties.get("rest.identity.url")) : restApiUrl;
+        this.soapApiUrl = removeTrailingSlash(properties.get("soap.url"));
+        this.retry = properties.containsKey("retry") ? Integer.valueOf(properties.get("retry").trim()) : null;
+    }
+    
+    /**
+     * Returns the snapshot of the given environment properties file, parsing it on first access only.
+     * A file that cannot be read is not cached, so the next access reads it again.
+     *
+     * @param envPropertiesPath the absolute path of the environment properties file
+     * @return the shared snapshot for that file, or an empty snapshot if it cannot be read
+     */
+    public static EnvironmentSnapshot of(String envPropertiesPath) {
+        EnvironmentSnapshot snapshot = SNAPSHOTS.computeIfAbsent(envPropertiesPath, EnvironmentSnapshot::load);
+        return snapshot != null ? snapshot : new EnvironmentSnapshot(envPropertiesPath, new Properties());
+    }
+    
+    // Returns null on failure, which computeIfAbsent does not cache
+    private static EnvironmentSnapshot load(String envPropertiesPath) {
+        Properties properties;
+        try {
+            properties = EnvDataConfig.loadPropertiesOrFail(envPropertiesPath);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return new EnvironmentSnapshot(envPropertiesPath, properties);
+    }
+    
+    /**
+     * Parses the given environment properties file again and publishes the new snapshot in a single step.
+     * Readers keep seeing the previous snapshot until the new one is complete,
+     * and keep it if the file cannot be read or parsed or lacks a required property.
+     *
+     * @param envPropertiesPath the absolute path of the environment properties file
+     * @return the published snapshot
+     * @throws UncheckedIOException     if the file cannot be read
+     * @throws IllegalArgumentException if the file or one of its values is malformed
+     * @throws IllegalStateException    if a required property is missing
+     */
+    public static EnvironmentSnapshot reload(String envPropertiesPath) {
+        Properties properties;
+        try {
+            properties = EnvDataConfig.loadPropertiesOrFail(envPropertiesPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + envPropertiesPath, e);
+        }
+        List<String> missing = REQUIRED_PROPERTIES.stream()
+                .filter(name -> properties.getProperty(name, "").isBlank())
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException(envPropertiesPath + " is missing the required properties " + missing);
+        }
+        EnvironmentSnapshot snapshot = new EnvironmentSnapshot(envPropertiesPath, properties);
+        SNAPSHOTS.put(envPropertiesPath, snapshot);
+        return snapshot;
+    }
+    
+    /**
+     * Returns the value of a property of the environment file.
+     *
+     * @param name the name of the property
+     * @return the value of the property, or null if it does not exist
+     */
+    public String getProperty(String name) {
+        return properties.get(name);
+    }
+    
+    /**
+     * Returns the value of an integer property of the environment file.
+     *
+     * @param name         the name of the property
+     * @param defaultValue the value to return if the property does not exist or is empty
+     * @return the value of the property, or the default value
+     */
+    public int getIntProperty(String name, int defaultValue) {
+        String value = properties.get(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+    
+    /**
+     * Returns the value of a URL property with any trailing slash removed.
+     *
+     * @param name the name of the property
+     * @return the URL, or null if it does not exist
+     */
+    public String getUrl(String name) {
+        return removeTrailingSlash(properties.get(name));
+    }
+    
+    private static String removeTrailingSlash(String url) {
+        if (url != null && url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url;
+    }
+    
+    private static String extractProfileFromEnvPropertiesPath(String envPropertiesPath) {
+        String config = "config/";
+        String extracted = envPropertiesPath.substring(envPropertiesPath.indexOf(config) + config.length(), envPropertiesPath.lastIndexOf("."));
+        extracted = extracted.replace("/", "-");
+        return extracted;
+    }
+}
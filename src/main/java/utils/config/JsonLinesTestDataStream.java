@@ -0,0 +1,66 @@
+package utils.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Streams a JSON Lines data set, where every line is a JSON object holding one row.
+ * Nested objects and arrays are flattened to dotted keys (e.g. "address.city", "tags.0"), as in the properties files.
+ */
+final class JsonLinesTestDataStream extends TestDataStream {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private final BufferedReader reader;
+    
+    JsonLinesTestDataStream(String file) throws IOException {
+        super(file);
+        this.reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    protected TestDataConfig readRow() throws IOException {
+        String line = nextLine(reader);
+        if (line == null) {
+            return null;
+        }
+        Properties row = new Properties();
+        flatten("", MAPPER.readTree(line), row);
+        return toRow(row);
+    }
+    
+    @Override
+    protected boolean skipRow() throws IOException {
+        return nextLine(reader) != null;
+    }
+    
+    @Override
+    protected void release() throws IOException {
+        reader.close();
+    }
+    
+    private static void flatten(String prefix, JsonNode node, Properties row) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                flatten(prefix + field.getKey() + ".", field.getValue(), row);
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                flatten(prefix + i + ".", node.get(i), row);
+            }
+        } else if (!prefix.isEmpty()) {
+            row.put(prefix.substring(0, prefix.length() - 1), node.isNull() ? "" : node.asText());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package utils.config;
+
+import lombok.Getter;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project paths, pom.xml properties and selected profile files, resolved once per run.
+ * The resolution time is measured and compared against the "layout.budget.ms" system property (default 1000ms).
+ */
+@Getter
+public final class ProjectLayout {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(ProjectLayout.class);
+    private static final long DEFAULT_BUDGET_MS = 1000;
+    
+    private final String absolutePath;
+    private final String targetPath;
+    private final String resourcesPath;
+    private final String testResourcesPath;
+    private final Map<String, String> pomProperties;
+    private final String environmentProperties;
+    private final String secretProperties;
+    private final long resolutionTimeNanos;
+    
+    private ProjectLayout() {
+        long start = System.nanoTime();
+        String absPath = Paths.get(".")
+                .toAbsolutePath().normalize().toString().replace("\\", "/");
+        String classesPath = ResourcesConfig.class.getClassLoader().getResource(".").getPath().replace("\\", "/");
+        
+        this.absolutePath = absPath + classesPath
+                .replace("/target/test-classes", "")
+                .replace("/target/classes", "")
+                .replace(absPath, "")
+                .replace("//", "/");
+        this.targetPath = absPath + classesPath
+                .replace("test-classes", "")
+                .replace("classes", "")
+                .replace(absPath, "")
+                .replace("//", "/");
+        this.resourcesPath = resolveResourcesPath("main");
+        this.testResourcesPath = resolveResourcesPath("test");
+        this.pomProperties = readPomProperties();
+        this.environmentProperties = resolveEnvironmentProperties();
+        this.secretProperties = resolveSecretProperties();
+        this.resolutionTimeNanos = System.nanoTime() - start;
+        
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(resolutionTimeNanos);
+        long budgetMs = Long.getLong("layout.budget.ms", DEFAULT_BUDGET_MS);
+        if (elapsedMs > budgetMs) {
+            logger.warn("Project layout resolved in {} ms, over the budget of {} ms", elapsedMs, budgetMs);
+        } else {
+            logger.info("Project layout resolved in {} ms", elapsedMs);
+        }
+    }
+    
+    /**
+     * Returns the layout of the running project, resolving it on first access.
+     *
+     * @return the shared ProjectLayout
+     */
+    public static ProjectLayout get() {
+        return Holder.INSTANCE;
+    }
+    
+    /**
+     * Returns a property declared in the pom.xml properties section.
+     *
+     * @param propertyName the name of the property
+     * @return the value of the property, or null if it does not exist
+     */
+    public String getPomProperty(String propertyName) {
+        return pomProperties.get(propertyName);
+    }
+    
+    private Map<String, String> readPomProperties() {
+        Map<String, String> properties = new HashMap<>();
+        MavenXpp3Reader reader = new MavenXpp3Reader();
+        try (Reader pom = new FileReader(absolutePath + "/pom.xml")) {
+            Model model = reader.read(pom);
+            model.getProperties().forEach((key, value) -> properties.put(key.toString(), value.toString()));
+        } catch (IOException | XmlPullParserException e) {
+            e.printStackTrace();
+        }
+        return Map.copyOf(properties);
+    }
+    
+    private String resolveEnvironmentProperties() {
+        String envPropertiesPath;
+        if (System.getProperty("env.properties") == null) {
+            envPropertiesPath = absolutePath + getPomProperty("env.properties");
+            if (envPropertiesPath.endsWith("null")) {
+                envPropertiesPath = resourcesPath + "/config/local.properties";
+            }
+        } else {
+            envPropertiesPath = absolutePath + System.getProperty("env.properties");
+        }
+        return envPropertiesPath;
+    }
+    
+    private String resolveSecretProperties() {
+        if (System.getProperty("secret.properties") == null) {
+            return absolutePath + getPomProperty("secret.properties");
+        } else {
+            return absolutePath + System.getProperty("secret.properties");
+        }
+    }
+    
+    private String resolveResourcesPath(String packageName) {
+        String filePathString = absolutePath + "src/" + packageName + "/resources";
+        File f = new File(filePathString);
+        if (!f.exists())
+            filePathString = absolutePath;
+        return filePathString;
+    }
+    
+    private static final class Holder {
+        private static final ProjectLayout INSTANCE = new ProjectLayout();
+    }
+}
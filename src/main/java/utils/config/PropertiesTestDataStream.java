@@ -0,0 +1,45 @@
+package utils.config;
+
+import java.util.Iterator;
+
+/**
+ * Streams the testCase.N data sets of a test suite properties file.
+ * The file is parsed once through the TestDataCache, and each row is a view over the shared index.
+ */
+final class PropertiesTestDataStream extends TestDataStream {
+    
+    private final TestDataIndex testCase;
+    private final Iterator<Integer> rows;
+    
+    PropertiesTestDataStream(TestDataConfig testCaseData) {
+        super(testCaseData.getPropertyFile());
+        this.testCase = testCaseData.index();
+        this.rows = testCase.segments().stream()
+                .filter(segment -> segment.chars().allMatch(Character::isDigit))
+                .map(Integer::valueOf)
+                .sorted()
+                .iterator();
+    }
+    
+    @Override
+    protected TestDataConfig readRow() {
+        if (!rows.hasNext()) {
+            return null;
+        }
+        return new TestDataConfig(source, testCase.view(String.valueOf(rows.next())));
+    }
+    
+    @Override
+    protected boolean skipRow() {
+        if (!rows.hasNext()) {
+            return false;
+        }
+        rows.next();
+        return true;
+    }
+    
+    @Override
+    protected void release() {
+        // Nothing to release, the index is shared through the TestDataCache
+    }
+}
@@ -1,7 +1,5 @@
 package utils.config;
 
-import java.util.Properties;
-
 public class SecretsConfig extends EnvDataConfig {
     
     public SecretsConfig() {
@@ -9,19 +7,19 @@ public class SecretsConfig extends EnvDataConfig {
     }
     
     public String getUsername() {
-        return getSecretProperties().getProperty("username");
+        return getSecretSnapshot().getUsername();
     }
     
     public String getPassword() {
-        return getSecretProperties().getProperty("password");
+        return getSecretSnapshot().getPassword();
     }
     
     public String getToken() {
-        return getSecretProperties().getProperty("token");
+        return getSecretSnapshot().getToken();
     }
     
     
-    private Properties getSecretProperties() {
-        return getProperties(loadProperties(resourcesConfig.getSecretProperties()));
+    private SecretsSnapshot getSecretSnapshot() {
+        return SecretsSnapshot.of(resourcesConfig.getSecretProperties());
     }
 }
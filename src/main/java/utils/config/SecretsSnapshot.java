@@ -0,0 +1,95 @@
+package utils.config;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable view of a secrets properties file.
+ * Each file is parsed once and shared by every thread until the ConfigReloader publishes a newer snapshot.
+ */
+@Getter
+public final class SecretsSnapshot {
+    
+    private static final Map<String, SecretsSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+    
+    private final String sourceFile;
+    private final String username;
+    private final String password;
+    private final String token;
+    private final Map<String, String> properties;
+    
+    private SecretsSnapshot(String sourceFile, Properties source) {
+        Map<String, String> values = new HashMap<>();
+        for (String name : source.stringPropertyNames()) {
+            values.put(name, source.getProperty(name));
+        }
+        this.sourceFile = sourceFile;
+        this.properties = Map.copyOf(values);
+        this.username = properties.get("username");
+        this.password = properties.get("password");
+        this.token = properties.get("token");
+    }
+    
+    /**
+     * Returns the snapshot of the given secrets file, parsing it on first access only.
+     * A file that exists but cannot be read is not cached, so the next access reads it again.
+     *
+     * @param secretPropertiesPath the absolute path of the secrets properties file
+     * @return the shared snapshot for that file, or an empty snapshot if it cannot be read
+     */
+    public static SecretsSnapshot of(String secretPropertiesPath) {
+        SecretsSnapshot snapshot = SNAPSHOTS.computeIfAbsent(secretPropertiesPath, SecretsSnapshot::load);
+        return snapshot != null ? snapshot : new SecretsSnapshot(secretPropertiesPath, new Properties());
+    }
+    
+    /**
+     * Parses the given secrets file again and publishes the new snapshot in a single step.
+     * Readers keep seeing the previous snapshot until the new one is complete, and keep it if the file cannot be read or parsed.
+     *
+     * @param secretPropertiesPath the absolute path of the secrets properties file
+     * @return the published snapshot
+     * @throws UncheckedIOException     if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public static SecretsSnapshot reload(String secretPropertiesPath) {
+        SecretsSnapshot snapshot;
+        try {
+            snapshot = new SecretsSnapshot(secretPropertiesPath, EnvDataConfig.loadPropertiesOrFail(secretPropertiesPath));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + secretPropertiesPath, e);
+        }
+        SNAPSHOTS.put(secretPropertiesPath, snapshot);
+        return snapshot;
+    }
+    
+    /**
+     * Returns the value of a property of the secrets file.
+     *
+     * @param name the name of the property
+     * @return the value of the property, or null if it does not exist
+     */
+    public String getProperty(String name) {
+        return properties.get(name);
+    }
+    
+    // Returns null when an existing file fails to load, which computeIfAbsent does not cache
+    private static SecretsSnapshot load(String path) {
+        Properties properties = new Properties();
+        if (new File(path).isFile()) {
+            try {
+                properties = EnvDataConfig.loadPropertiesOrFail(path);
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        return new SecretsSnapshot(path, properties);
+    }
+}
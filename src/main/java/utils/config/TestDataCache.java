@@ -0,0 +1,64 @@
+package utils.config;
+
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of parsed test data files, shared by all TestDataConfig instances.
+ * Entries are keyed by the resolved file path and validated against the file's last-modified time,
+ * so each file is parsed once per run unless it changes on disk.
+ */
+public final class TestDataCache {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(TestDataCache.class);
+    private static final TestDataIndex EMPTY = TestDataIndex.of(new Properties());
+    private static final Map<String, CachedFile> FILES = new ConcurrentHashMap<>();
+    
+    private TestDataCache() {
+    }
+    
+    /**
+     * Returns the index of a test data file, parsing the file only if it is not cached or was modified since it was cached.
+     *
+     * @param testDataFile the resolved path of the test data file, may be null
+     * @return the shared index of the file, empty if the file does not exist
+     */
+    public static TestDataIndex get(String testDataFile) {
+        if (testDataFile == null) {
+            return EMPTY;
+        }
+        long lastModified = new File(testDataFile).lastModified();
+        CachedFile cached = FILES.get(testDataFile);
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.index;
+        }
+        return FILES.compute(testDataFile, (path, current) -> {
+            if (current != null && current.lastModified == lastModified) {
+                return current;
+            }
+            logger.debug("Parsing test data file {}", path);
+            return new CachedFile(lastModified, TestDataIndex.of(EnvDataConfig.loadProperties(path)));
+        }).index;
+    }
+    
+    /**
+     * Removes all the cached files.
+     */
+    public static void clear() {
+        FILES.clear();
+    }
+    
+    private static final class CachedFile {
+        private final long lastModified;
+        private final TestDataIndex index;
+        
+        private CachedFile(long lastModified, TestDataIndex index) {
+            this.lastModified = lastModified;
+            this.index = index;
+        }
+    }
+}
@@ -6,24 +6,56 @@ import org.testng.Assert;
 import org.testng.util.Strings;
 
 import java.io.File;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class TestDataConfig extends EnvDataConfig {
     
+    private static final Map<String, String> PROPERTY_FILES = new ConcurrentHashMap<>();
+    
     @Getter
     private final String propertyFile;
-    @Getter
-    private Properties testData = new Properties();
+    private final TestDataIndex testDataIndex;
+    private Properties testData;
     
     public TestDataConfig(String testSuiteName, String testCaseName) {
         propertyFile = initializePropertyFile(testSuiteName);
-        testData = getTestData(testCaseName);
+        testDataIndex = getTestDataIndex(propertyFile).view(testCaseName);
     }
     
     public TestDataConfig(String testSuiteName, String testCaseName, int index) {
         propertyFile = initializePropertyFile(testSuiteName);
-        testData = getTestData(testCaseName + "." + index);
+        testDataIndex = getTestDataIndex(propertyFile).view(testCaseName + "." + index);
+    }
+    
+    TestDataConfig(String propertyFile, TestDataIndex testDataIndex) {
+        this.propertyFile = propertyFile;
+        this.testDataIndex = testDataIndex;
+    }
+    
+    /**
+     * Returns the index over the test data of the test case.
+     *
+     * @return The TestDataIndex of the test case.
+     */
+    TestDataIndex index() {
+        return testDataIndex;
+    }
+    
+    /**
+     * Returns the test data of the test case as a Properties object.
+     * The Properties object is only materialized on first call, lookups go through the test data index.
+     *
+     * @return A Properties object containing the test data of the test case.
+     */
+    public synchronized Properties getTestData() {
+        if (testData == null) {
+            testData = testDataIndex.toProperties();
+        }
+        return testData;
     }
     
     /**
@@ -36,7 +68,7 @@ public final class TestDataConfig extends EnvDataConfig {
         if (!parameterExists(parameterName)) {
             Assert.fail("Parameter '" + parameterName + "' does not exist in Test Data!");
         }
-        return testData.getProperty(parameterName);
+        return testDataIndex.get(parameterName);
     }
     
     /**
@@ -58,7 +90,7 @@ public final class TestDataConfig extends EnvDataConfig {
      * @return the value of the parameter if it exists, otherwise the default value
      */
     public String getStringParameterIfExists(String parameterName, String defaultValue) {
-        return parameterExists(parameterName) ? testData.getProperty(parameterName) : defaultValue;
+        return parameterExists(parameterName) ? testDataIndex.get(parameterName) : defaultValue;
     }
     
     /**
@@ -148,13 +180,11 @@ public final class TestDataConfig extends EnvDataConfig {
      * @return the parameter values as a List of Strings
      */
     public List<String> getMultipleStringParameters(String parameterPrefix) {
-        Properties targetProperties = getParameters(parameterPrefix);
-        if (targetProperties.isEmpty()) {
+        List<String> values = testDataIndex.values(parameterPrefix);
+        if (values.isEmpty()) {
             Assert.fail("No parameters with prefix '" + parameterPrefix + "' found in Test Data!");
         }
-        return targetProperties.values().stream()
-                .map(value -> Objects.toString(value, null))
-                .collect(Collectors.toList());
+        return values;
     }
     
     /**
@@ -164,8 +194,7 @@ public final class TestDataConfig extends EnvDataConfig {
      * @return true if parameter exists, false otherwise
      */
     public boolean parameterExists(String parameter) {
-        Properties targetProperties = getParameters(parameter);
-        return !targetProperties.isEmpty();
+        return testDataIndex.contains(parameter);
     }
     
     /**
@@ -177,12 +206,7 @@ public final class TestDataConfig extends EnvDataConfig {
      * @return A Properties object containing the test data.
      */
     public Properties getTestData(String filepath, String dataSetPrefix) {
-        Properties prop = loadTestData(filepath);
-        if (dataSetPrefix != null) {
-            return getProperties(prop, dataSetPrefix);
-        } else {
-            return prop;
-        }
+        return getTestDataIndex(filepath).view(dataSetPrefix).toProperties();
     }
     
     /**
@@ -204,8 +228,7 @@ public final class TestDataConfig extends EnvDataConfig {
      * @return The value of the specified user property.
      */
     public String getTestUserData(String filepath, String userPropertyValue) {
-        Properties prop = loadTestData(filepath);
-        return prop.getProperty(userPropertyValue);
+        return getTestDataIndex(filepath).get(userPropertyValue);
     }
     
     /**
@@ -229,77 +252,23 @@ public final class TestDataConfig extends EnvDataConfig {
     }
     
     /**
-     * Loads Properties from the default test data file ("testData.properties").
-     *
-     * @return A Properties object containing the test data.
-     */
-    private Properties loadTestData() {
-        return loadTestData(propertyFile);
-    }
-    
-    /**
-     * Returns a Properties object containing only the properties with keys starting with a given prefix from a supplied Properties object.
+     * Returns the sorted index over the keys of a given test data file.
+     * The file is parsed once and shared through the TestDataCache until it is modified on disk.
      *
-     * @param params The Properties object to extract properties from.
-     * @param prefix The prefix of the properties to extract.
-     * @return A new Properties object containing only the extracted properties.
-     */
-    @SuppressWarnings("rawtypes")
-    private Properties getProperties(Properties params, String prefix) {
-        Properties result = new Properties();
-        Enumeration names = params.propertyNames();
-        while (names.hasMoreElements()) {
-            String name = (String) names.nextElement();
-            if (name.indexOf(prefix) == 0) {
-                result.put(name.substring(prefix.length() + 1), params.get(name));
-            }
-        }
-        return result;
-    }
-    
-    /**
-     * Returns a Properties object containing only the properties with keys starting with a given prefix from the default test data object.
-     *
-     * @param prefix The prefix of the properties to extract.
-     * @return A new Properties object containing only the extracted properties.
-     */
-    private Properties getProperties(String prefix) {
-        return getProperties(testData, prefix);
-    }
-    
-    /**
-     * Returns a Properties object containing only the properties with keys starting with a given prefix (and optional period separator) from a supplied Properties object.
-     *
-     * @param params The Properties object to extract properties from.
-     * @param prefix The prefix of the properties to extract.
-     * @return A new Properties object containing only the extracted properties.
+     * @param testDataFile The path of the file containing the test data.
+     * @return A TestDataIndex over the test data.
      */
-    @SuppressWarnings("rawtypes")
-    private Properties getParameters(Properties params, String prefix) {
-        Properties targetParameters = new Properties();
-        
-        Enumeration allParameters = params.propertyNames();
-        while (allParameters.hasMoreElements()) {
-            String parameter = (String) allParameters.nextElement();
-            if (parameter.startsWith(prefix)) {
-                if (parameter.length() == prefix.length()) {
-                    targetParameters.put(parameter, params.get(parameter));
-                } else if (parameter.substring(prefix.length()).startsWith(".")) {
-                    targetParameters.put(parameter.substring(prefix.length() + 1), params.get(parameter));
-                }
-            }
-        }
-        return targetParameters;
+    private TestDataIndex getTestDataIndex(String testDataFile) {
+        return TestDataCache.get(testDataFile);
     }
     
     /**
-     * Returns a Properties object containing only the properties with keys starting with a given prefix (and optional period separator) from the default test data object.
+     * Loads Properties from the default test data file ("testData.properties").
      *
-     * @param prefix The prefix of the properties to extract.
-     * @return A new Properties object containing only the extracted properties.
+     * @return A Properties object containing the test data.
      */
-    private Properties getParameters(String prefix) {
-        return getParameters(testData, prefix);
+    private Properties loadTestData() {
+        return loadTestData(propertyFile);
     }
     
     /**
@@ -321,10 +290,24 @@ public final class TestDataConfig extends EnvDataConfig {
      * properties\
      * TS_APl_SmokeTests.properties
      *
+     * The resolved path is memoized per test suite name for the rest of the run.
+     * A missing file is not memoized, so a file created later in the run is still found.
+     *
      * @param testSuiteName The name of the test suite.
      * @return The file path for the property file, or null if it does not exist.
      */
     private String initializePropertyFile(String testSuiteName) {
+        return PROPERTY_FILES.computeIfAbsent(testSuiteName, this::resolvePropertyFile);
+    }
+    
+    /**
+     * Resolves the file path for the property file corresponding to the given test suite name,
+     * following the order of precedence described in {@link #initializePropertyFile(String)}.
+     *
+     * @param testSuiteName The name of the test suite.
+     * @return The file path for the property file, or null if it does not exist.
+     */
+    private String resolvePropertyFile(String testSuiteName) {
         ResourcesConfig resourcesConfig = new ResourcesConfig();
         
         String filePath;
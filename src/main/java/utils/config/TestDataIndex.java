@@ -0,0 +1,149 @@
+package utils.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Sorted index over the dotted keys of a test data file.
+ * Existence checks and lookups are O(log n), and prefix views share the underlying map instead of copying it.
+ */
+public final class TestDataIndex {
+    
+    private static final char SEPARATOR = '.';
+    // The character right after the separator, used as the exclusive upper bound of a prefix range
+    private static final char SEPARATOR_UPPER_BOUND = SEPARATOR + 1;
+    
+    private final NavigableMap<String, String> entries;
+    private final String base;
+    
+    private TestDataIndex(NavigableMap<String, String> entries, String base) {
+        this.entries = entries;
+        this.base = base;
+    }
+    
+    /**
+     * Builds an index over all the properties of a test data file.
+     *
+     * @param properties the loaded test data file
+     * @return the index of the properties
+     */
+    public static TestDataIndex of(Properties properties) {
+        TreeMap<String, String> sorted = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            sorted.put(name, properties.getProperty(name));
+        }
+        return new TestDataIndex(Collections.unmodifiableNavigableMap(sorted), "");
+    }
+    
+    /**
+     * Returns a view of the entries under the given prefix, with the prefix (and its period separator) stripped from the keys.
+     * A null prefix returns this index.
+     *
+     * @param prefix the prefix of the data set
+     * @return a view sharing the entries of this index
+     */
+    public TestDataIndex view(String prefix) {
+        if (prefix == null) {
+            return this;
+        }
+        return new TestDataIndex(descendants(base + prefix), base + prefix + SEPARATOR);
+    }
+    
+    /**
+     * Checks whether a key exists, either as a parameter itself or as the prefix of other parameters.
+     *
+     * @param key the key relative to this view
+     * @return true if the key exists, false otherwise
+     */
+    public boolean contains(String key) {
+        String fullKey = base + key;
+        if (entries.containsKey(fullKey)) {
+            return true;
+        }
+        String next = entries.ceilingKey(fullKey + SEPARATOR);
+        return next != null && next.startsWith(fullKey + SEPARATOR);
+    }
+    
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key relative to this view
+     * @return the value of the key, or null if it does not exist
+     */
+    public String get(String key) {
+        return entries.get(base + key);
+    }
+    
+    /**
+     * Returns the value of a key followed by the values of all the keys under it, in key order.
+     *
+     * @param key the key relative to this view
+     * @return the matching values, empty if none exist
+     */
+    public List<String> values(String key) {
+        String fullKey = base + key;
+        List<String> values = new ArrayList<>();
+        String exact = entries.get(fullKey);
+        if (exact != null) {
+            values.add(exact);
+        }
+        values.addAll(descendants(fullKey).values());
+        return values;
+    }
+    
+    /**
+     * Returns the distinct first segments of the keys in this view, in key order.
+     * The keys under a segment are skipped with a single descent instead of being visited one by one.
+     *
+     * @return the first segments of the keys
+     */
+    public Set<String> segments() {
+        Set<String> segments = new LinkedHashSet<>();
+        String key = entries.isEmpty() ? null : entries.firstKey();
+        while (key != null) {
+            String relative = key.substring(base.length());
+            int separator = relative.indexOf(SEPARATOR);
+            String segment = separator < 0 ? relative : relative.substring(0, separator);
+            segments.add(segment);
+            String fullSegment = base + segment;
+            key = entries.higherKey(key);
+            if (key != null && key.startsWith(fullSegment + SEPARATOR)) {
+                key = entries.ceilingKey(fullSegment + SEPARATOR_UPPER_BOUND);
+            }
+        }
+        return segments;
+    }
+    
+    /**
+     * Returns the number of entries in this view.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Copies this view into a Properties object, with keys relative to this view.
+     *
+     * @return a new Properties object containing the entries of this view
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            properties.put(entry.getKey().substring(base.length()), entry.getValue());
+        }
+        return properties;
+    }
+    
+    private NavigableMap<String, String> descendants(String fullKey) {
+        return entries.subMap(fullKey + SEPARATOR, true, fullKey + SEPARATOR_UPPER_BOUND, false);
+    }
+}
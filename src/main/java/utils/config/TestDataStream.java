@@ -0,0 +1,210 @@
+package utils.config;
+
+import org.slf4j.Logger;
+import org.testng.Assert;
+import utils.jfr.ConfigLoadEvent;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+
+/**
+ * Row by row source of data-driven test data, meant to be returned by a TestNG data provider.
+ * Each element is an Object[] holding the TestDataConfig of one row.
+ * <p>
+ * Datasets are looked up in order of precedence:
+ * 1. test-data/datasets/{env}/{testSuite}/{testCase}.csv or .jsonl
+ * 2. test-data/datasets/{testSuite}/{testCase}.csv or .jsonl
+ * 3. the testCase.N entries of the test suite properties file
+ * <p>
+ * CSV and JSON Lines datasets are read one line at a time, so memory stays bounded no matter how many rows the file has,
+ * as long as the rows are consumed one by one: TestNG reads the whole iterator of a parallel data provider before it runs
+ * the first invocation, holding every row on the heap, while a sequential data provider pulls the rows as the invocations go.
+ */
+public abstract class TestDataStream implements Iterator<Object[]>, Closeable {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(TestDataStream.class);
+    private static final List<String> DATASET_EXTENSIONS = List.of(".csv", ".jsonl");
+    
+    protected final String source;
+    private TestDataConfig pending;
+    private boolean finished;
+    
+    protected TestDataStream(String source) {
+        this.source = source;
+    }
+    
+    /**
+     * Opens the data set of a test case.
+     *
+     * @param testSuiteName The name of the test suite.
+     * @param testCaseName  The name of the test case.
+     * @return A TestDataStream over the rows of the test case.
+     */
+    public static TestDataStream open(String testSuiteName, String testCaseName) {
+        String dataset = findDataset(testSuiteName, testCaseName);
+        if (dataset == null) {
+            return new PropertiesTestDataStream(new TestDataConfig(testSuiteName, testCaseName));
+        }
+        return openDataset(dataset);
+    }
+    
+    /**
+     * Returns a single row of the data set of a test case. Rows are numbered from 1, as the testCase.N entries of the properties files.
+     * CSV and JSON Lines datasets are read up to the requested row, the lines before it are skipped without being parsed.
+     *
+     * @param testSuiteName The name of the test suite.
+     * @param testCaseName  The name of the test case.
+     * @param index         The number of the row.
+     * @return The TestDataConfig of the row.
+     */
+    public static TestDataConfig getRow(String testSuiteName, String testCaseName, int index) {
+        String dataset = findDataset(testSuiteName, testCaseName);
+        if (dataset == null) {
+            return new TestDataConfig(testSuiteName, testCaseName, index);
+        }
+        if (index >= 1) {
+            try (TestDataStream stream = openDataset(dataset)) {
+                if (stream.skipRows(index - 1) && stream.hasNext()) {
+                    return stream.nextRow();
+                }
+            }
+        }
+        Assert.fail("Row " + index + " does not exist in dataset '" + dataset + "'!");
+        return null;
+    }
+    
+    @Override
+    public synchronized boolean hasNext() {
+        if (pending == null && !finished) {
+            try {
+                pending = readRow();
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Failed to read test data from " + source, e);
+            }
+            if (pending == null) {
+                finished = true;
+                close();
+            }
+        }
+        return pending != null;
+    }
+    
+    @Override
+    public Object[] next() {
+        return new Object[]{nextRow()};
+    }
+    
+    /**
+     * Returns the next row of the data set.
+     *
+     * @return The TestDataConfig of the next row.
+     */
+    public synchronized TestDataConfig nextRow() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more rows in " + source);
+        }
+        TestDataConfig row = pending;
+        pending = null;
+        return row;
+    }
+    
+    @Override
+    public void close() {
+        try {
+            release();
+        } catch (IOException e) {
+            logger.warn("Failed to close test data source {}", source, e);
+        }
+    }
+    
+    /**
+     * Reads the next row of the data set.
+     *
+     * @return The TestDataConfig of the row, or null when there are no more rows.
+     * @throws IOException If the data set cannot be read.
+     */
+    protected abstract TestDataConfig readRow() throws IOException;
+    
+    /**
+     * Skips the next row of the data set without building its TestDataConfig.
+     *
+     * @return true if a row was skipped, false when there are no more rows.
+     * @throws IOException If the data set cannot be read.
+     */
+    protected abstract boolean skipRow() throws IOException;
+    
+    /**
+     * Releases any resource held by the stream. Called once the rows are exhausted or the stream is closed.
+     *
+     * @throws IOException If the resource cannot be released.
+     */
+    protected abstract void release() throws IOException;
+    
+    /**
+     * Reads the next line of a data set that is not blank.
+     *
+     * @param reader The reader of the data set.
+     * @return The line, or null at the end of the data set.
+     * @throws IOException If the data set cannot be read.
+     */
+    protected static String nextLine(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.isBlank()) {
+            line = reader.readLine();
+        }
+        return line;
+    }
+    
+    protected TestDataConfig toRow(Properties row) {
+        return new TestDataConfig(source, TestDataIndex.of(row));
+    }
+    
+    private synchronized boolean skipRows(int rows) {
+        try {
+            for (int row = 0; row < rows; row++) {
+                if (!skipRow()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Failed to read test data from " + source, e);
+        }
+    }
+    
+    private static TestDataStream openDataset(String dataset) {
+        logger.debug("Streaming test data from {}", dataset);
+        ConfigLoadEvent event = new ConfigLoadEvent();
+        event.begin();
+        try {
+            TestDataStream stream = dataset.endsWith(".csv") ? new CsvTestDataStream(dataset) : new JsonLinesTestDataStream(dataset);
+            event.commit(dataset, "dataset", 0);
+            return stream;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open test data " + dataset, e);
+        }
+    }
+    
+    private static String findDataset(String testSuiteName, String testCaseName) {
+        ResourcesConfig resourcesConfig = new ResourcesConfig();
+        String environment = new EnvDataConfig().getEnvironment().getName();
+        for (String directory : List.of(resourcesConfig.getTestCaseDatasetsDir() + environment + "/", resourcesConfig.getTestCaseDatasetsDir())) {
+            for (String extension : DATASET_EXTENSIONS) {
+                String filePath = directory + testSuiteName + "/" + testCaseName + extension;
+                if (new File(filePath).exists()) {
+                    return filePath;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package utils.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum AttachmentBodyPolicy {
+    TRUNCATE("truncate"),
+    DEDUPE("dedupe");
+    
+    private final String name;
+    
+    AttachmentBodyPolicy(String name) {
+        this.name = name;
+    }
+    
+    public static AttachmentBodyPolicy fromString(String name) {
+        for (AttachmentBodyPolicy policy : AttachmentBodyPolicy.values()) {
+            if (policy.name.equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("No constant with name " + name + " found");
+    }
+}
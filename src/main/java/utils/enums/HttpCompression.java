@@ -0,0 +1,25 @@
+package utils.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum HttpCompression {
+    NONE("none"),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+    
+    private final String name;
+    
+    HttpCompression(String name) {
+        this.name = name;
+    }
+    
+    public static HttpCompression fromString(String name) {
+        for (HttpCompression compression : HttpCompression.values()) {
+            if (compression.name.equalsIgnoreCase(name)) {
+                return compression;
+            }
+        }
+        throw new IllegalArgumentException("No constant with name " + name + " found");
+    }
+}
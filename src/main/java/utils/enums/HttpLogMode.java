@@ -0,0 +1,25 @@
+package utils.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum HttpLogMode {
+    ALWAYS("always"),
+    ON_FAILURE("on-failure"),
+    OFF("off");
+    
+    private final String name;
+    
+    HttpLogMode(String name) {
+        this.name = name;
+    }
+    
+    public static HttpLogMode fromString(String name) {
+        for (HttpLogMode mode : HttpLogMode.values()) {
+            if (mode.name.equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("No constant with name " + name + " found");
+    }
+}
@@ -0,0 +1,24 @@
+package utils.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum HttpTransport {
+    HTTP_1_1("http/1.1"),
+    HTTP_2("http/2");
+    
+    private final String name;
+    
+    HttpTransport(String name) {
+        this.name = name;
+    }
+    
+    public static HttpTransport fromString(String name) {
+        for (HttpTransport transport : HttpTransport.values()) {
+            if (transport.name.equalsIgnoreCase(name)) {
+                return transport;
+            }
+        }
+        throw new IllegalArgumentException("No constant with name " + name + " found");
+    }
+}
@@ -0,0 +1,25 @@
+package utils.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum MetricType {
+    COUNTER("counter"),
+    GAUGE("gauge"),
+    SUMMARY("summary");
+    
+    private final String name;
+    
+    MetricType(String name) {
+        this.name = name;
+    }
+    
+    public static MetricType fromString(String name) {
+        for (MetricType type : MetricType.values()) {
+            if (type.name.equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("No constant with name " + name + " found");
+    }
+}
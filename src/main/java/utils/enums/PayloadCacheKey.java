@@ -0,0 +1,24 @@
+package utils.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum PayloadCacheKey {
+    IDENTITY("identity"),
+    EQUALITY("equality");
+    
+    private final String name;
+    
+    PayloadCacheKey(String name) {
+        this.name = name;
+    }
+    
+    public static PayloadCacheKey fromString(String name) {
+        for (PayloadCacheKey key : PayloadCacheKey.values()) {
+            if (key.name.equalsIgnoreCase(name)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("No constant with name " + name + " found");
+    }
+}
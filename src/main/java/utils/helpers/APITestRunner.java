@@ -4,20 +4,33 @@ import annotations.APITest;
 import domain.RestEndpointEnum;
 import domain.SoapActionEnum;
 import domain.SoapBasePathEnum;
+import io.qameta.allure.Allure;
 import io.restassured.http.Method;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import models.UploadSource;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.testng.Assert;
 import utils.enums.RequestType;
+import utils.service.http.HttpTransportFilter;
 import utils.service.interfaces.IBaseService;
 import utils.service.interfaces.IRestService;
 import utils.service.interfaces.ISoapService;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class APITestRunner {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(APITestRunner.class);
+    private static final int SIGNIFICANT_DIGITS = 3;
     private final java.lang.reflect.Method method;
     
     public APITestRunner(java.lang.reflect.Method method) {
@@ -28,38 +41,152 @@ public class APITestRunner {
         Response response = null;
         if (method.isAnnotationPresent(APITest.class)) {
             APITest apiTest = method.getAnnotation(APITest.class);
-            RequestType requestType = apiTest.requestType();
-            if (requestType == RequestType.REST) {
-                response = handleRestRequest(apiTest, webService);
-            } else if (requestType == RequestType.SOAP) {
-                response = handleSoapRequest(apiTest, webService);
+            response = isSampled(apiTest) ? runSampled(apiTest, webService) : send(apiTest, webService, false);
+        }
+        return response;
+    }
+    
+    private Response send(APITest apiTest, IBaseService webService, boolean sampling) {
+        RequestType requestType = apiTest.requestType();
+        if (requestType == RequestType.REST) {
+            return handleRestRequest(apiTest, webService, sampling);
+        } else if (requestType == RequestType.SOAP) {
+            return handleSoapRequest(apiTest, webService, sampling);
+        }
+        return null;
+    }
+    
+    private static boolean isSampled(APITest apiTest) {
+        return apiTest.samples() > 1
+                || apiTest.warmUp() > 0
+                || apiTest.maxP95Millis() > 0
+                || apiTest.maxP99Millis() > 0
+                || apiTest.maxErrorRate() < 1;
+    }
+    
+    /**
+     * Sends the request of the test warmUp times without measuring it, then samples times, and fails the test
+     * if the p95 or p99 latency of the measured calls is over its budget, or if too many of them failed.
+     * Latencies are those of the calls that got a response, measured at the transport, a call that threw only counts as an error.
+     * The calls are sent without the exchange capture and Allure attachment filters, the report gets the latency summary instead.
+     *
+     * @param apiTest    the API test annotation of the test method
+     * @param webService the web service of the test
+     * @return the response of the last measured call that got one
+     */
+    private Response runSampled(APITest apiTest, IBaseService webService) {
+        if (apiTest.samples() < 1 || apiTest.warmUp() < 0) {
+            throw new IllegalArgumentException("@APITest of " + method.getName() + " needs at least 1 sample and no negative warm-up");
+        }
+        if (apiTest.maxErrorRate() < 0 || apiTest.maxErrorRate() > 1) {
+            throw new IllegalArgumentException("@APITest maxErrorRate of " + method.getName() + " must be between 0 and 1");
+        }
+        for (int i = 0; i < apiTest.warmUp(); i++) {
+            try {
+                send(apiTest, webService, true);
+            } catch (Exception e) {
+                logger.debug("Warm-up call {} of {} failed", i + 1, method.getName(), e);
+            }
+        }
+        Histogram latencies = new Histogram(SIGNIFICANT_DIGITS);
+        Response response = null;
+        Exception lastError = null;
+        int errors = 0;
+        for (int i = 0; i < apiTest.samples(); i++) {
+            try {
+                Response sampled = send(apiTest, webService, true);
+                latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos(sampled))));
+                response = sampled;
+                if (sampled.getStatusCode() >= 400) {
+                    errors++;
+                }
+            } catch (Exception e) {
+                errors++;
+                lastError = e;
             }
         }
+        if (response == null) {
+            throw new IllegalStateException("None of the " + apiTest.samples() + " calls of " + method.getName() + " got a response", lastError);
+        }
+        checkBudgets(apiTest, latencies, errors);
         return response;
     }
     
-    private Response handleSoapRequest(APITest apiTest, IBaseService webService) {
+    private void checkBudgets(APITest apiTest, Histogram latencies, int errors) {
+        double p95 = millis(latencies.getValueAtPercentile(95));
+        double p99 = millis(latencies.getValueAtPercentile(99));
+        double errorRate = (double) errors / apiTest.samples();
+        String summary = String.format("%s: %d samples after %d warm-up, p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms, errors %d (%.1f%%)",
+                method.getName(), apiTest.samples(), apiTest.warmUp(), millis(latencies.getValueAtPercentile(50)), p95, p99,
+                millis(latencies.getMaxValue()), errors, errorRate * 100);
+        List<String> violations = new ArrayList<>();
+        if (apiTest.maxP95Millis() > 0 && p95 > apiTest.maxP95Millis()) {
+            violations.add(String.format("p95 %.3f ms is over the budget of %d ms", p95, apiTest.maxP95Millis()));
+        }
+        if (apiTest.maxP99Millis() > 0 && p99 > apiTest.maxP99Millis()) {
+            violations.add(String.format("p99 %.3f ms is over the budget of %d ms", p99, apiTest.maxP99Millis()));
+        }
+        if (errorRate > apiTest.maxErrorRate()) {
+            violations.add(String.format("error rate %.1f%% is over the budget of %.1f%%", errorRate * 100, apiTest.maxErrorRate() * 100));
+        }
+        logger.info("Latency {}", summary);
+        Allure.addAttachment("Latency SLO", "text/plain",
+                violations.isEmpty() ? summary : summary + "\n" + String.join("\n", violations), ".txt");
+        if (!violations.isEmpty()) {
+            Assert.fail(method.getName() + " broke its latency SLO: " + String.join(", ", violations));
+        }
+    }
+    
+    // Falls back to the time RestAssured measured, which includes the filters, if the exchange did not reach the transport
+    private static long latencyNanos(Response response) {
+        long nanos = HttpTransportFilter.takeLastLatencyNanos();
+        return nanos >= 0 ? nanos : TimeUnit.MILLISECONDS.toNanos(response.getTime());
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+    
+    private Response handleSoapRequest(APITest apiTest, IBaseService webService, boolean sampling) {
         SoapBasePathEnum endpoint = apiTest.soapEndpoint();
         SoapActionEnum soapAction = apiTest.soapAction();
         Object payload = apiTest.payload();
-        return makeSoapRequest(webService, endpoint, soapAction, payload);
+        return makeSoapRequest(webService, endpoint, soapAction, payload, sampling);
     }
     
-    private Response handleRestRequest(APITest apiTest, IBaseService webService) {
+    private Response handleRestRequest(APITest apiTest, IBaseService webService, boolean sampling) {
         RestEndpointEnum endpoint = apiTest.restEndpoint();
         Method methodType = apiTest.method();
         String route = apiTest.route();
         Class<?> payload = apiTest.payload() != null && !NoPayload.class.isAssignableFrom(apiTest.payload()) ? apiTest.payload() : null;
         Map<String, Object> pathParams = parseParams(apiTest.pathParams());
         Map<String, Object> queryParams = parseParams(apiTest.queryParams());
+        if (apiTest.streamingUpload() || apiTest.syntheticUploadSize() > 0) {
+            return makeStreamingUpload(webService, methodType, endpoint, route, pathParams, queryParams, toUploadSource(apiTest), sampling);
+        }
         File file = apiTest.filePath() != null && !apiTest.filePath().isEmpty() ? new File(apiTest.filePath()) : null;
-        return makeRestRequest(webService, methodType, endpoint, route, payload, pathParams, queryParams, file);
+        return makeRestRequest(webService, methodType, endpoint, route, payload, pathParams, queryParams, file, sampling);
     }
     
-    private Response makeRestRequest(IBaseService webService, Method methodType, RestEndpointEnum basePath, String route, Object payload, Map<String, Object> pathParams, Map<String, Object> queryParams, File file) {
+    private UploadSource toUploadSource(APITest apiTest) {
+        if (apiTest.filePath() != null && !apiTest.filePath().isEmpty()) {
+            return UploadSource.ofFile(Path.of(apiTest.filePath()));
+        }
+        return UploadSource.synthetic(method.getName() + ".bin", apiTest.syntheticUploadSize());
+    }
+    
+    private Response makeStreamingUpload(IBaseService webService, Method methodType, RestEndpointEnum basePath, String route, Map<String, Object> pathParams, Map<String, Object> queryParams, UploadSource upload, boolean sampling) {
+        IRestService rest = webService.rest();
+        RequestSpecification requestSpec = requestSpec(rest, sampling)
+                .pathParams(pathParams)
+                .queryParams(queryParams);
+        return rest.sendStreamingUpload(requestSpec, basePath, route, methodType, upload);
+    }
+    
+    private Response makeRestRequest(IBaseService webService, Method methodType, RestEndpointEnum basePath, String route, Object payload, Map<String, Object> pathParams, Map<String, Object> queryParams, File file, boolean sampling) {
         IRestService rest = webService.rest();
         return rest.sendRequest(
-                rest.createRequest(rest.getRequestSpec(),
+                rest.createRequest(requestSpec(rest, sampling),
                         basePath,
                         route,
                         payload,
@@ -70,8 +197,15 @@ public class APITestRunner {
                 route);
     }
     
-    private Response makeSoapRequest(IBaseService webService, SoapBasePathEnum basePath, SoapActionEnum soapAction, Object payload) {
+    private static RequestSpecification requestSpec(IRestService rest, boolean sampling) {
+        return sampling ? rest.getSamplingRequestSpec() : rest.getRequestSpec();
+    }
+    
+    private Response makeSoapRequest(IBaseService webService, SoapBasePathEnum basePath, SoapActionEnum soapAction, Object payload, boolean sampling) {
         ISoapService soap = webService.soap();
+        if (sampling) {
+            return soap.postSamplingRequest(basePath.getPath(), soapAction.getPath(), payload);
+        }
         return soap.postRequest(basePath.getPath(), soapAction.getPath(), payload);
         
     }
@@ -0,0 +1,79 @@
+package utils.helpers;
+
+import org.testng.IDynamicGraph;
+import org.testng.ISuite;
+import org.testng.ITestNGMethod;
+import org.testng.TestNG;
+import org.testng.internal.thread.DefaultThreadPoolExecutorFactory;
+import org.testng.thread.IExecutorFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import org.testng.thread.IThreadWorkerFactory;
+
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TestNG executor factory that dispatches suites and test methods on virtual threads.
+ * TestNG still schedules the methods with its own graph executor, only the threads running them are virtual,
+ * so a test blocked on a network round-trip does not hold a platform thread.
+ * <p>
+ * The thread-count of the suite is raised to the configured concurrency, since virtual threads do not need pool tuning.
+ * <p>
+ * install is the only place the factory is set, it is called by the ConcurrencyListener constructor with -Dvirtual.threads=true.
+ * The executor factory API of TestNG 7.9 is deprecated with no replacement, and the -threadpoolfactoryclass option
+ * is not read from the properties surefire passes, so the factory is set on the running TestNG instance.
+ */
+// IExecutorFactory, ITestNGThreadPoolExecutor and TestNG.setExecutorFactory are deprecated in TestNG 7.9 without a replacement
+@SuppressWarnings("deprecation")
+public class VirtualThreadExecutorFactory implements IExecutorFactory {
+    
+    // Without it TestNG 7.9 ignores the executor factory and builds its own platform thread pools
+    private static final String FAVOR_CUSTOM_EXECUTOR = "testng.favor.custom.thread-pool.executor";
+    
+    private final IExecutorFactory delegate = new DefaultThreadPoolExecutorFactory();
+    private final int concurrency;
+    
+    public VirtualThreadExecutorFactory(int concurrency) {
+        this.concurrency = concurrency;
+    }
+    
+    /**
+     * Sets the factory on the running TestNG instance. It must be called before TestNG builds its configuration,
+     * that is from the constructor of a listener declared to surefire or on the command line.
+     *
+     * @param concurrency the number of test methods to run at a time
+     * @return true if the factory was set, false if there is no running TestNG instance yet
+     */
+    public static boolean install(int concurrency) {
+        TestNG testNG = TestNG.getDefault();
+        if (testNG == null) {
+            return false;
+        }
+        System.setProperty(FAVOR_CUSTOM_EXECUTOR, "true");
+        testNG.setExecutorFactory(new VirtualThreadExecutorFactory(concurrency));
+        return true;
+    }
+    
+    @Override
+    public ITestNGThreadPoolExecutor newSuiteExecutor(String name, IDynamicGraph<ISuite> graph, IThreadWorkerFactory<ISuite> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ISuite> comparator) {
+        return onVirtualThreads(name, delegate.newSuiteExecutor(name, graph, factory, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, comparator));
+    }
+    
+    @Override
+    public ITestNGThreadPoolExecutor newTestMethodExecutor(String name, IDynamicGraph<ITestNGMethod> graph, IThreadWorkerFactory<ITestNGMethod> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ITestNGMethod> comparator) {
+        return onVirtualThreads(name, delegate.newTestMethodExecutor(name, graph, factory, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, comparator));
+    }
+    
+    private ITestNGThreadPoolExecutor onVirtualThreads(String name, ITestNGThreadPoolExecutor executor) {
+        if (executor instanceof ThreadPoolExecutor pool) {
+            pool.setThreadFactory(Thread.ofVirtual().name("TestNG-virtual-" + name + "-", 0).factory());
+            if (concurrency > pool.getCorePoolSize()) {
+                pool.setMaximumPoolSize(Math.max(concurrency, pool.getMaximumPoolSize()));
+                pool.setCorePoolSize(concurrency);
+            }
+        }
+        return executor;
+    }
+}
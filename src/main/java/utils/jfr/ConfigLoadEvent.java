@@ -0,0 +1,44 @@
+package utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of loading an environment, secrets or test data file, or opening a test data set.
+ */
+@Name("apitest.ConfigLoad")
+@Label("Configuration Load")
+@Category({"API Test Framework", "Configuration"})
+@Description("A configuration or test data file read by the framework")
+@StackTrace(false)
+public class ConfigLoadEvent extends jdk.jfr.Event {
+    
+    @Label("File")
+    private String file;
+    
+    @Label("Kind")
+    private String kind;
+    
+    @Label("Entries")
+    private int entries;
+    
+    /**
+     * Ends the event and commits it, if a recording has the event enabled and over its threshold.
+     *
+     * @param file    the path of the file
+     * @param kind    properties for a parsed file, dataset for an opened test data set
+     * @param entries the number of properties read, 0 for a data set whose rows are streamed later
+     */
+    public void commit(String file, String kind, int entries) {
+        end();
+        if (shouldCommit()) {
+            this.file = file;
+            this.kind = kind;
+            this.entries = entries;
+            commit();
+        }
+    }
+}
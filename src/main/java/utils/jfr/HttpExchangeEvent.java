@@ -0,0 +1,91 @@
+package utils.jfr;
+
+import io.restassured.response.Response;
+import io.restassured.specification.QueryableRequestSpecification;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.SpecificationQuerier;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import utils.service.http.CompressionFilter;
+
+/**
+ * Flight recorder event of one HTTP exchange sent by Rest or Soap, from the call of the service to its validated response.
+ * <p>
+ * When no recording is running the event is never filled in nor committed, so the exchange only pays for its timestamps.
+ */
+@Name("apitest.HttpExchange")
+@Label("HTTP Exchange")
+@Category({"API Test Framework", "HTTP"})
+@Description("An HTTP request sent by the framework and its response")
+@StackTrace(false)
+public class HttpExchangeEvent extends jdk.jfr.Event {
+    
+    @Label("Method")
+    private String method;
+    
+    @Label("Endpoint")
+    private String endpoint;
+    
+    @Label("Step")
+    private String step;
+    
+    @Label("Status")
+    private int status;
+    
+    @Label("Request Bytes")
+    @Description("Size of the request body before compression, 0 for a streamed body")
+    @DataAmount
+    private long requestBytes;
+    
+    @Label("Response Bytes")
+    @Description("Size of the response body after decoding, 0 for a streamed body")
+    @DataAmount
+    private long responseBytes;
+    
+    /**
+     * Ends the event and commits it with the details of the exchange, if a recording has the event enabled and over its threshold.
+     * The request is only queried when the event is committed.
+     *
+     * @param request  the request specification that was sent
+     * @param method   the HTTP method of the request
+     * @param route    the route of the request, appended to its base path
+     * @param step     the description of the current test step
+     * @param response the response of the request, with its body already read
+     */
+    public void commit(RequestSpecification request, String method, String route, String step, Response response) {
+        commit(request, method, route, step, response, true);
+    }
+    
+    /**
+     * Ends and commits the event of an exchange whose response body is streamed after it, so the event lasts until the
+     * response headers are received and its response bytes are left at 0, the body is not read.
+     *
+     * @param request  the request specification that was sent
+     * @param method   the HTTP method of the request
+     * @param route    the route of the request, appended to its base path
+     * @param step     the description of the current test step
+     * @param response the response of the request, with its body unread
+     */
+    public void commitStreamed(RequestSpecification request, String method, String route, String step, Response response) {
+        commit(request, method, route, step, response, false);
+    }
+    
+    private void commit(RequestSpecification request, String method, String route, String step, Response response, boolean bodyRead) {
+        end();
+        if (shouldCommit()) {
+            QueryableRequestSpecification sent = SpecificationQuerier.query(request);
+            String soapAction = sent.getHeaders().getValue("SOAPAction");
+            this.method = method;
+            this.endpoint = sent.getBasePath() + route + (soapAction == null ? "" : " " + soapAction);
+            this.step = step;
+            this.status = response.getStatusCode();
+            this.requestBytes = CompressionFilter.bodySize(sent.getBody(), sent.getContentType());
+            this.responseBytes = bodyRead ? response.asByteArray().length : 0;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * Flight recorder event of a test step, from a before or step call of BaseTest to the next step boundary on the same thread.
+ * The after call closes the open step and is recorded as an instant event.
+ */
+@Name("apitest.TestStep")
+@Label("Test Step")
+@Category({"API Test Framework", "Test"})
+@Description("A step of a test, as described in BaseTest before, step and after")
+@StackTrace(false)
+public class TestStepEvent extends jdk.jfr.Event {
+    
+    private static final ThreadLocal<TestStepEvent> OPEN_STEP = new ThreadLocal<>();
+    
+    @Label("Test")
+    private String test;
+    
+    @Label("Kind")
+    private String kind;
+    
+    @Label("Description")
+    private String description;
+    
+    /**
+     * Commits the open step of the current thread and opens a new one.
+     *
+     * @param kind        before or step
+     * @param description the description of the step
+     */
+    public static void open(String kind, String description) {
+        commitOpenStep();
+        TestStepEvent step = new TestStepEvent();
+        if (step.isEnabled()) {
+            step.fill(kind, description);
+            step.begin();
+            OPEN_STEP.set(step);
+        }
+    }
+    
+    /**
+     * Commits the open step of the current thread and records the end of the test as an instant step.
+     *
+     * @param description the description of the step
+     */
+    public static void after(String description) {
+        commitOpenStep();
+        TestStepEvent step = new TestStepEvent();
+        if (step.isEnabled()) {
+            step.fill("after", description);
+            step.commit();
+        }
+    }
+    
+    private static void commitOpenStep() {
+        TestStepEvent open = OPEN_STEP.get();
+        if (open != null) {
+            OPEN_STEP.remove();
+            open.commit();
+        }
+    }
+    
+    private void fill(String kind, String description) {
+        ITestResult result = Reporter.getCurrentTestResult();
+        this.test = result == null ? null : result.getTestClass().getName() + "." + result.getMethod().getMethodName();
+        this.kind = kind;
+        this.description = description;
+    }
+}
@@ -0,0 +1,92 @@
+package utils.listeners;
+
+import org.slf4j.Logger;
+import org.testng.IExecutionListener;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import utils.helpers.VirtualThreadExecutorFactory;
+import utils.metrics.RunMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Selects the execution mode of the run and reports the concurrency it achieved.
+ * <p>
+ * With -Dvirtual.threads=true the test methods are dispatched on virtual threads,
+ * up to -Dvirtual.threads.concurrency methods at a time (1000 by default).
+ * At the end of the run the peak number of concurrent test methods is logged, together with the wall-clock time
+ * compared to the sum of the test durations, which is what a sequential run would take.
+ */
+public class ConcurrencyListener implements IExecutionListener, IInvokedMethodListener {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(ConcurrencyListener.class);
+    private static final String LOGGER_SEPARATOR = "====================================================";
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("virtual.threads");
+    private static final int VIRTUAL_CONCURRENCY = Integer.getInteger("virtual.threads.concurrency", 1000);
+    
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final LongAdder testMethods = new LongAdder();
+    private final LongAdder testMillis = new LongAdder();
+    private final AtomicBoolean platformThreadReported = new AtomicBoolean();
+    private volatile Thread executionThread;
+    private long startNanos;
+    
+    public ConcurrencyListener() {
+        // TestNG instantiates the listeners before it builds its configuration, which is the last point the executor can be replaced
+        if (VIRTUAL_THREADS && !VirtualThreadExecutorFactory.install(VIRTUAL_CONCURRENCY)) {
+            logger.warn("virtual.threads is set but TestNG is not running yet, test methods will run on platform threads");
+        }
+    }
+    
+    @Override
+    public void onExecutionStart() {
+        startNanos = System.nanoTime();
+        executionThread = Thread.currentThread();
+        logger.info("Execution mode: {}", VIRTUAL_THREADS ? "virtual threads, up to " + VIRTUAL_CONCURRENCY + " concurrent test methods" : "platform threads");
+    }
+    
+    @Override
+    public void onExecutionFinish() {
+        long wallMillis = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        long sequentialMillis = testMillis.sum();
+        logger.info(LOGGER_SEPARATOR);
+        logger.info("Execution mode: {}", VIRTUAL_THREADS ? "virtual threads" : "platform threads");
+        logger.info("Test methods: {}, peak concurrency: {}", testMethods.sum(), peak.get());
+        logger.info("Wall-clock: {} ms, sum of test durations: {} ms, gain: {}x",
+                wallMillis, sequentialMillis, wallMillis == 0 ? "n/a" : String.format("%.2f", (double) sequentialMillis / wallMillis));
+        logger.info(LOGGER_SEPARATOR);
+    }
+    
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            reportPlatformThread();
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            RunMetrics.testStarted();
+        }
+    }
+    
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            running.decrementAndGet();
+            RunMetrics.testFinished();
+            testMethods.increment();
+            testMillis.add(testResult.getEndMillis() - testResult.getStartMillis());
+        }
+    }
+    
+    // Tests run in sequence stay on the thread of the run, only the ones dispatched by TestNG's executors can be virtual
+    private void reportPlatformThread() {
+        Thread current = Thread.currentThread();
+        if (VIRTUAL_THREADS && !current.isVirtual() && current != executionThread && platformThreadReported.compareAndSet(false, true)) {
+            logger.warn("virtual.threads is set but test methods run on platform thread {}, TestNG did not use the virtual thread executor",
+                    current.getName());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package utils.listeners;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import utils.service.http.ExchangeLog;
+
+/**
+ * Gives every test and configuration method its own buffer of captured HTTP exchanges when the HTTP log mode is on-failure.
+ * The exchanges of a failed method are logged and attached to the Allure report, which also covers the failed attempts
+ * of a retried test, and the exchanges of the other methods are discarded.
+ */
+public class ExchangeLogListener implements IInvokedMethodListener {
+    
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        ExchangeLog.begin();
+    }
+    
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (testResult.getStatus() == ITestResult.FAILURE) {
+            ExchangeLog.flush(testResult.getName());
+        } else {
+            ExchangeLog.discard();
+        }
+    }
+}
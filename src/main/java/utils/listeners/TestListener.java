@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.testng.ITestContext;
 import org.testng.ITestResult;
 import org.testng.TestListenerAdapter;
+import utils.metrics.RunMetrics;
 
 public class TestListener extends TestListenerAdapter {
     
@@ -33,6 +34,7 @@ public class TestListener extends TestListenerAdapter {
     public void onTestFailedButWithinSuccessPercentage(ITestResult tr) {
         log.info(LOGGER_SEPARATOR);
         log.warn("Test partially succeeded: {}", tr.getName());
+        RunMetrics.recordTestResult(tr, "partial");
         log.info(LOGGER_SEPARATOR);
     }
     
@@ -40,6 +42,7 @@ public class TestListener extends TestListenerAdapter {
     public void onTestFailure(ITestResult tr) {
         log.info(LOGGER_SEPARATOR);
         log.error("Test failed: {}", tr.getName(), tr.getThrowable());
+        RunMetrics.recordTestResult(tr, "failed");
         log.info(LOGGER_SEPARATOR);
     }
     
@@ -47,6 +50,7 @@ public class TestListener extends TestListenerAdapter {
     public void onTestSkipped(ITestResult tr) {
         log.info(LOGGER_SEPARATOR);
         log.warn("Test skipped: {}", tr.getName());
+        RunMetrics.recordTestResult(tr, "skipped");
         log.info(LOGGER_SEPARATOR);
     }
     
@@ -61,6 +65,7 @@ public class TestListener extends TestListenerAdapter {
     public void onTestSuccess(ITestResult tr) {
         log.info(LOGGER_SEPARATOR);
         log.info("Test succeeded: {}", tr.getName());
+        RunMetrics.recordTestResult(tr, "passed");
         log.info(LOGGER_SEPARATOR);
     }
 }
@@ -0,0 +1,43 @@
+package utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up, such as requests sent or tests retried.
+ * Increments are striped over the cells of a LongAdder, so threads updating the same counter do not contend.
+ */
+public final class Counter {
+    
+    private final LongAdder count = new LongAdder();
+    
+    Counter() {
+    }
+    
+    /**
+     * Adds one to the counter.
+     */
+    public void increment() {
+        count.increment();
+    }
+    
+    /**
+     * Adds an amount to the counter.
+     *
+     * @param amount the amount to add, not negative
+     */
+    public void increment(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("A counter cannot be decreased, got " + amount);
+        }
+        count.add(amount);
+    }
+    
+    /**
+     * Returns the current count.
+     *
+     * @return the sum of all the increments
+     */
+    public long value() {
+        return count.sum();
+    }
+}
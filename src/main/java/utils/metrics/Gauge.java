@@ -0,0 +1,50 @@
+package utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A value that goes up and down, such as the requests in flight.
+ * It is either updated by the code or, when registered with a sampler, read from the sampler each time the metrics are exported.
+ */
+public final class Gauge {
+    
+    private final AtomicLong value = new AtomicLong();
+    private final LongSupplier sampler;
+    
+    Gauge(LongSupplier sampler) {
+        this.sampler = sampler;
+    }
+    
+    /**
+     * Adds one to the gauge.
+     */
+    public void increment() {
+        value.incrementAndGet();
+    }
+    
+    /**
+     * Subtracts one from the gauge.
+     */
+    public void decrement() {
+        value.decrementAndGet();
+    }
+    
+    /**
+     * Sets the value of the gauge.
+     *
+     * @param newValue the new value
+     */
+    public void set(long newValue) {
+        value.set(newValue);
+    }
+    
+    /**
+     * Returns the current value, sampled if the gauge has a sampler.
+     *
+     * @return the value of the gauge
+     */
+    public long value() {
+        return sampler == null ? value.get() : sampler.getAsLong();
+    }
+}
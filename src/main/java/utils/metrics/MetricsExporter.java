@@ -0,0 +1,158 @@
+package utils.metrics;
+
+import org.slf4j.Logger;
+import utils.common.SharedObjectMapper;
+import utils.config.EnvDataConfig;
+import utils.metrics.MetricsRegistry.MetricFamily;
+import utils.metrics.MetricsRegistry.MetricSample;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the metrics of the registry to metrics.prom, in the Prometheus text format, and to metrics.json,
+ * in the directory set by metrics.export.dir.
+ * <p>
+ * The files are written at the end of the suite and, when metrics.export.interval.seconds is above 0,
+ * every interval during the run by a background daemon thread, so long runs can be followed while they go.
+ * Each file is written next to its target and then moved over it, so the textfile collector of the node exporter
+ * never reads a half-written file. Point the collector at the directory to scrape the run.
+ */
+public final class MetricsExporter {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(MetricsExporter.class);
+    private static final String PROMETHEUS_FILE = "metrics.prom";
+    private static final String JSON_FILE = "metrics.json";
+    private static final Object EXPORT_LOCK = new Object();
+    private static ScheduledExecutorService scheduler;
+    
+    private MetricsExporter() {
+    }
+    
+    /**
+     * Starts exporting the metrics periodically if metrics.export.interval.seconds is above 0.
+     */
+    public static synchronized void startIfEnabled() {
+        EnvDataConfig envDataConfig = new EnvDataConfig();
+        int intervalSeconds = envDataConfig.getMetricsExportIntervalSeconds();
+        if (intervalSeconds > 0 && scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(MetricsExporter::exportPeriodically, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+            logger.info("Exporting metrics to {} every {} s", envDataConfig.getMetricsExportDir(), intervalSeconds);
+        }
+    }
+    
+    /**
+     * Stops the periodic export. The files keep the last metrics written.
+     */
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+    
+    /**
+     * Writes the current metrics of the registry to the Prometheus text file and the JSON file.
+     */
+    public static void export() {
+        Path directory = Path.of(new EnvDataConfig().getMetricsExportDir());
+        synchronized (EXPORT_LOCK) {
+            List<MetricFamily> families = MetricsRegistry.get().snapshot();
+            try {
+                Files.createDirectories(directory);
+                write(directory.resolve(PROMETHEUS_FILE), toPrometheusText(families).getBytes(StandardCharsets.UTF_8));
+                write(directory.resolve(JSON_FILE),
+                        SharedObjectMapper.writerFor(List.class).withDefaultPrettyPrinter().writeValueAsBytes(families));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot export the metrics to " + directory, e);
+            }
+        }
+        logger.debug("Exported the metrics to {}", directory);
+    }
+    
+    /**
+     * Returns metric families in the Prometheus text exposition format. Timers are written as summaries in seconds.
+     *
+     * @param families the metric families
+     * @return the metrics as Prometheus text
+     */
+    static String toPrometheusText(List<MetricFamily> families) {
+        StringBuilder text = new StringBuilder();
+        for (MetricFamily family : families) {
+            text.append("# HELP ").append(family.name()).append(' ').append(escapeHelp(family.help())).append('\n');
+            text.append("# TYPE ").append(family.name()).append(' ').append(family.type()).append('\n');
+            for (MetricSample sample : family.samples()) {
+                if (sample.value() != null) {
+                    appendSample(text, family.name(), sample.labels(), null, sample.value().toString());
+                    continue;
+                }
+                if (sample.quantiles() != null) {
+                    sample.quantiles().forEach((quantile, seconds) ->
+                            appendSample(text, family.name(), sample.labels(), quantile, String.valueOf(seconds)));
+                }
+                appendSample(text, family.name() + "_sum", sample.labels(), null, String.valueOf(sample.sum()));
+                appendSample(text, family.name() + "_count", sample.labels(), null, String.valueOf(sample.count()));
+            }
+        }
+        return text.toString();
+    }
+    
+    private static void exportPeriodically() {
+        try {
+            export();
+        } catch (RuntimeException e) {
+            // An exception would cancel the next exports
+            logger.warn("Could not export the metrics", e);
+        }
+    }
+    
+    private static void appendSample(StringBuilder text, String name, Map<String, String> labels, String quantile, String value) {
+        text.append(name);
+        if (!labels.isEmpty() || quantile != null) {
+            text.append('{');
+            String separator = "";
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                text.append(separator).append(label.getKey()).append("=\"").append(escapeLabelValue(label.getValue())).append('"');
+                separator = ",";
+            }
+            if (quantile != null) {
+                text.append(separator).append("quantile=\"").append(quantile).append('"');
+            }
+            text.append('}');
+        }
+        text.append(' ').append(value).append('\n');
+    }
+    
+    private static String escapeHelp(String help) {
+        return help == null ? "" : help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+    
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+    
+    private static void write(Path file, byte[] content) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, content);
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package utils.metrics;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.HdrHistogram.Histogram;
+import utils.enums.MetricType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The in-process metrics of the run: counters, gauges and timers, grouped in families by name as in Prometheus,
+ * each metric of a family identified by the values of its labels.
+ * <p>
+ * Metrics are created on first use and then returned as they are, so callers can look them up on every update.
+ * Updates never lock, see Counter, Gauge and Timer. The registry is exported by MetricsExporter.
+ */
+public final class MetricsRegistry {
+    
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    private static final Pattern METRIC_NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_NAME = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+    
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+    
+    private MetricsRegistry() {
+    }
+    
+    /**
+     * Returns the registry of the run.
+     *
+     * @return the shared MetricsRegistry
+     */
+    public static MetricsRegistry get() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Returns the counter of a family, creating it on first use.
+     *
+     * @param name   the name of the family, by convention ending with _total
+     * @param help   the description of the family
+     * @param labels the label names and values, alternated
+     * @return the counter with these labels
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return metric(name, help, MetricType.COUNTER, labels, Counter.class, Counter::new);
+    }
+    
+    /**
+     * Returns the gauge of a family, creating it on first use.
+     *
+     * @param name   the name of the family
+     * @param help   the description of the family
+     * @param labels the label names and values, alternated
+     * @return the gauge with these labels
+     */
+    public Gauge gauge(String name, String help, String... labels) {
+        return metric(name, help, MetricType.GAUGE, labels, Gauge.class, () -> new Gauge(null));
+    }
+    
+    /**
+     * Returns the gauge of a family whose value is read from a sampler when the metrics are exported, creating it on first use.
+     * The sampler of the first call is kept.
+     *
+     * @param name    the name of the family
+     * @param help    the description of the family
+     * @param sampler returns the current value of the gauge
+     * @param labels  the label names and values, alternated
+     * @return the gauge with these labels
+     */
+    public Gauge gauge(String name, String help, LongSupplier sampler, String... labels) {
+        return metric(name, help, MetricType.GAUGE, labels, Gauge.class, () -> new Gauge(sampler));
+    }
+    
+    /**
+     * Returns the timer of a family, creating it on first use.
+     *
+     * @param name   the name of the family, by convention ending with _seconds
+     * @param help   the description of the family
+     * @param labels the label names and values, alternated
+     * @return the timer with these labels
+     */
+    public Timer timer(String name, String help, String... labels) {
+        return metric(name, help, MetricType.SUMMARY, labels, Timer.class, Timer::new);
+    }
+    
+    /**
+     * Returns the current value of every metric, families sorted by name and metrics by labels.
+     *
+     * @return the metric families of the registry
+     */
+    public List<MetricFamily> snapshot() {
+        return families.values().stream()
+                .sorted(Comparator.comparing(family -> family.name))
+                .map(Family::snapshot)
+                .toList();
+    }
+    
+    private <T> T metric(String name, String help, MetricType type, String[] labels, Class<T> metricClass, Supplier<T> factory) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels of " + name + " must be name and value pairs");
+        }
+        List<String> labelNames = new ArrayList<>(labels.length / 2);
+        List<String> labelValues = new ArrayList<>(labels.length / 2);
+        for (int i = 0; i < labels.length; i += 2) {
+            labelNames.add(labels[i]);
+            labelValues.add(labels[i + 1] == null ? "" : labels[i + 1]);
+        }
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type, labelNames));
+        if (family.type != type || !family.labelNames.equals(labelNames)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type.getName()
+                    + " with labels " + family.labelNames);
+        }
+        return metricClass.cast(family.metrics.computeIfAbsent(List.copyOf(labelValues), key -> factory.get()));
+    }
+    
+    /**
+     * The metrics of one name, all of the same type and label names.
+     */
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final MetricType type;
+        private final List<String> labelNames;
+        private final Map<List<String>, Object> metrics = new ConcurrentHashMap<>();
+        
+        private Family(String name, String help, MetricType type, List<String> labelNames) {
+            if (!METRIC_NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid metric name " + name);
+            }
+            for (String labelName : labelNames) {
+                if (!LABEL_NAME.matcher(labelName).matches() || labelName.startsWith("__") || "quantile".equals(labelName)) {
+                    throw new IllegalArgumentException("Invalid label name " + labelName + " of metric " + name);
+                }
+            }
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelNames = List.copyOf(labelNames);
+        }
+        
+        private MetricFamily snapshot() {
+            List<MetricSample> samples = metrics.entrySet().stream()
+                    .sorted(Comparator.comparing(entry -> String.join(",", entry.getKey())))
+                    .map(entry -> sample(labels(entry.getKey()), entry.getValue()))
+                    .toList();
+            return new MetricFamily(name, type.getName(), help, samples);
+        }
+        
+        private Map<String, String> labels(List<String> labelValues) {
+            Map<String, String> labels = new LinkedHashMap<>();
+            for (int i = 0; i < labelNames.size(); i++) {
+                labels.put(labelNames.get(i), labelValues.get(i));
+            }
+            return labels;
+        }
+        
+        private static MetricSample sample(Map<String, String> labels, Object metric) {
+            if (metric instanceof Counter counter) {
+                return new MetricSample(labels, counter.value(), null, null, null, null);
+            }
+            if (metric instanceof Gauge gauge) {
+                return new MetricSample(labels, gauge.value(), null, null, null, null);
+            }
+            Timer timer = (Timer) metric;
+            long count = timer.count();
+            Map<String, Double> quantiles = null;
+            if (count > 0) {
+                Histogram distribution = timer.distribution();
+                quantiles = new LinkedHashMap<>();
+                for (double quantile : QUANTILES) {
+                    quantiles.put(String.valueOf(quantile), distribution.getValueAtPercentile(quantile * 100) / 1e6);
+                }
+            }
+            return new MetricSample(labels, null, count, timer.totalSeconds(), timer.maxSeconds(), quantiles);
+        }
+    }
+    
+    /**
+     * The metrics of one name at the time of a snapshot.
+     */
+    public record MetricFamily(String name, String type, String help, List<MetricSample> samples) {
+    }
+    
+    /**
+     * One metric of a family: the value of a counter or gauge, or the count, total, maximum and quantiles in seconds of a timer.
+     * Quantiles are only given once the timer has recorded a duration.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record MetricSample(Map<String, String> labels, Long value, Long count, Double sum, Double max, Map<String, Double> quantiles) {
+    }
+}
@@ -0,0 +1,104 @@
+package utils.metrics;
+
+import org.testng.ITestResult;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics the framework records about the run: the exchanges sent by Rest and Soap, and the tests run, retried and their results.
+ * <p>
+ * Exchanges are counted by service, method and status class, none when no response was received,
+ * and those with no response or a 4xx or 5xx status are counted as errors too.
+ */
+public final class RunMetrics {
+    
+    private static final String REQUESTS = "apitest_http_requests_total";
+    private static final String REQUEST_ERRORS = "apitest_http_request_errors_total";
+    private static final String REQUEST_DURATION = "apitest_http_request_duration_seconds";
+    private static final String REQUESTS_IN_FLIGHT = "apitest_http_requests_in_flight";
+    private static final String TESTS = "apitest_tests_total";
+    private static final String TESTS_RUNNING = "apitest_tests_running";
+    private static final String TEST_DURATION = "apitest_test_duration_seconds";
+    private static final String TEST_RETRIES = "apitest_test_retries_total";
+    private static final String RUN_START = "apitest_run_start_time_seconds";
+    
+    static {
+        long startMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        MetricsRegistry.get().gauge(RUN_START, "Start time of the run, in seconds since the epoch",
+                () -> TimeUnit.MILLISECONDS.toSeconds(startMillis));
+    }
+    
+    private RunMetrics() {
+    }
+    
+    /**
+     * Marks an exchange as in flight.
+     *
+     * @return the start time of the exchange, to pass to recordExchange
+     */
+    public static long startExchange() {
+        MetricsRegistry.get().gauge(REQUESTS_IN_FLIGHT, "Requests sent and not answered yet").increment();
+        return System.nanoTime();
+    }
+    
+    /**
+     * Records an exchange started with startExchange.
+     *
+     * @param service    rest or soap
+     * @param method     the HTTP method of the request
+     * @param status     the status code of the response, 0 if no response was received
+     * @param startNanos the start time returned by startExchange
+     */
+    public static void recordExchange(String service, String method, int status, long startNanos) {
+        MetricsRegistry registry = MetricsRegistry.get();
+        registry.gauge(REQUESTS_IN_FLIGHT, "Requests sent and not answered yet").decrement();
+        registry.counter(REQUESTS, "Requests sent, by status class",
+                "service", service, "method", method, "status", status == 0 ? "none" : status / 100 + "xx").increment();
+        if (status == 0 || status >= 400) {
+            registry.counter(REQUEST_ERRORS, "Requests with no response or a 4xx or 5xx status",
+                    "service", service, "method", method).increment();
+        }
+        registry.timer(REQUEST_DURATION, "Time from sending a request to receiving its response",
+                "service", service, "method", method).record(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Marks a test method as running.
+     */
+    public static void testStarted() {
+        MetricsRegistry.get().gauge(TESTS_RUNNING, "Test methods running").increment();
+    }
+    
+    /**
+     * Marks a test method as no longer running.
+     */
+    public static void testFinished() {
+        MetricsRegistry.get().gauge(TESTS_RUNNING, "Test methods running").decrement();
+    }
+    
+    /**
+     * Records the result of a test and, if it ran, its duration.
+     *
+     * @param result  the result of the test
+     * @param outcome passed, failed, skipped or partial
+     */
+    public static void recordTestResult(ITestResult result, String outcome) {
+        MetricsRegistry registry = MetricsRegistry.get();
+        registry.counter(TESTS, "Tests finished, by result", "result", outcome).increment();
+        if (result.getStartMillis() > 0 && result.getEndMillis() >= result.getStartMillis()) {
+            registry.timer(TEST_DURATION, "Duration of the tests, by result", "result", outcome)
+                    .record(TimeUnit.MILLISECONDS.toNanos(result.getEndMillis() - result.getStartMillis()));
+        }
+    }
+    
+    /**
+     * Records that a failed test is run again.
+     *
+     * @param result the result of the failed attempt
+     */
+    public static void recordRetry(ITestResult result) {
+        MetricsRegistry.get().counter(TEST_RETRIES, "Failed tests run again",
+                "test", result.getTestClass().getName() + "." + result.getMethod().getMethodName()).increment();
+    }
+}
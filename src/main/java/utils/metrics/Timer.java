@@ -0,0 +1,87 @@
+package utils.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The count, total, maximum and distribution of durations, such as the latency of requests.
+ * <p>
+ * Recording does not lock: the count and total are LongAdders, the maximum is accumulated atomically
+ * and the distribution is an HdrHistogram ConcurrentHistogram in microseconds with three significant digits, whose recording is wait-free.
+ * Its quantiles cover the whole run, not a sliding window.
+ */
+public final class Timer {
+    
+    private static final int SIGNIFICANT_DIGITS = 3;
+    
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final Histogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    
+    Timer() {
+    }
+    
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds, negative durations are recorded as 0
+     */
+    public void record(long nanos) {
+        long duration = Math.max(0, nanos);
+        count.increment();
+        totalNanos.add(duration);
+        maxNanos.accumulateAndGet(duration, Math::max);
+        histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(duration));
+    }
+    
+    /**
+     * Records a duration.
+     *
+     * @param duration the duration
+     */
+    public void record(Duration duration) {
+        record(duration.toNanos());
+    }
+    
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return the count of the timer
+     */
+    public long count() {
+        return count.sum();
+    }
+    
+    /**
+     * Returns the sum of the durations recorded.
+     *
+     * @return the total in seconds
+     */
+    public double totalSeconds() {
+        return totalNanos.sum() / 1e9;
+    }
+    
+    /**
+     * Returns the longest duration recorded.
+     *
+     * @return the maximum in seconds
+     */
+    public double maxSeconds() {
+        return maxNanos.get() / 1e9;
+    }
+    
+    /**
+     * Returns a copy of the distribution, to read several quantiles from the same state.
+     *
+     * @return the distribution in microseconds
+     */
+    Histogram distribution() {
+        return histogram.copy();
+    }
+}
@@ -0,0 +1,77 @@
+package utils.service.http;
+
+import io.qameta.allure.attachment.http.HttpRequestAttachment;
+import io.qameta.allure.attachment.http.HttpResponseAttachment;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.internal.NameAndValue;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Attaches every request and response to the Allure report, with the same templates as AllureRestAssured,
+ * but hands the rendering and writing of the attachments to the AllureAttachmentWriter instead of doing it on the test thread.
+ */
+public class AllureAttachmentFilter implements OrderedFilter {
+    
+    private static final AllureAttachmentFilter INSTANCE = new AllureAttachmentFilter();
+    private static final String REQUEST_TEMPLATE = "http-request.ftl";
+    private static final String RESPONSE_TEMPLATE = "http-response.ftl";
+    
+    private AllureAttachmentFilter() {
+    }
+    
+    /**
+     * Returns the filter shared by all the requests.
+     *
+     * @return the shared AllureAttachmentFilter
+     */
+    public static AllureAttachmentFilter get() {
+        return INSTANCE;
+    }
+    
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        HttpRequestAttachment.Builder request = HttpRequestAttachment.Builder.create("Request", requestSpec.getURI())
+                .setMethod(requestSpec.getMethod())
+                .setHeaders(toMap(requestSpec.getHeaders()))
+                .setCookies(toMap(requestSpec.getCookies()));
+        if (requestSpec.getFormParams() != null) {
+            request.setFormParams(requestSpec.getFormParams());
+        }
+        AllureAttachmentWriter.get().attach("Request", REQUEST_TEMPLATE,
+                bodyOf(requestSpec.getBody()), requestSpec.getContentType(), body -> (body == null ? request : request.setBody(body)).build());
+        
+        Response response = ctx.next(requestSpec, responseSpec);
+        String name = response.getStatusLine() == null ? "Response" : response.getStatusLine();
+        HttpResponseAttachment.Builder responseAttachment = HttpResponseAttachment.Builder.create(name)
+                .setResponseCode(response.getStatusCode())
+                .setHeaders(toMap(response.getHeaders()));
+        AllureAttachmentWriter.get().attach(name, RESPONSE_TEMPLATE,
+                response.asString(), response.getContentType(), body -> (body == null ? responseAttachment : responseAttachment.setBody(body)).build());
+        return response;
+    }
+    
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+    
+    private static String bodyOf(Object body) {
+        if (body == null) {
+            return null;
+        }
+        return body instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : body.toString();
+    }
+    
+    private static Map<String, String> toMap(Iterable<? extends NameAndValue> values) {
+        Map<String, String> map = new HashMap<>();
+        values.forEach(value -> map.put(value.getName(), value.getValue()));
+        return map;
+    }
+}
@@ -0,0 +1,211 @@
+package utils.service.http;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.attachment.AttachmentData;
+import io.qameta.allure.attachment.FreemarkerAttachmentRenderer;
+import io.restassured.internal.support.Prettifier;
+import io.restassured.parsing.Parser;
+import org.slf4j.Logger;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import utils.config.EnvDataConfig;
+import utils.enums.AttachmentBodyPolicy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the Allure attachments of the HTTP exchanges on a background thread, so the test threads do not wait for the disk.
+ * <p>
+ * The attachment is registered in the running test or step on the calling thread,
+ * then its body is prettified, rendered and written to the results directory by the writer thread.
+ * Bodies longer than allure.attachments.maxBodyChars are truncated, or with allure.attachments.largeBodies=dedupe
+ * written in full the first time they are seen in the run and replaced by a reference to that attachment afterwards.
+ * Both happen on the calling thread, so the queue never holds more than maxBodyChars of a body.
+ * With allure.attachments.compress=true the attachments of large bodies are written gzip-compressed, as .html.gz files
+ * that the Allure report offers for download instead of showing inline; enable it only for reports that are archived.
+ * When the queue of the writer is full, the calling thread writes the attachment itself.
+ */
+public final class AllureAttachmentWriter {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(AllureAttachmentWriter.class);
+    private static final AllureAttachmentWriter INSTANCE = new AllureAttachmentWriter();
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final long FLUSH_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    
+    private final EnvDataConfig envDataConfig = new EnvDataConfig();
+    private final ThreadPoolExecutor executor;
+    private final Map<String, String> writtenBodies = new ConcurrentHashMap<>();
+    private final Object pendingLock = new Object();
+    private int pending;
+    private final LongAdder attachments = new LongAdder();
+    private final LongAdder renderedBytes = new LongAdder();
+    private final LongAdder writtenBytes = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    
+    private AllureAttachmentWriter() {
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "allure-attachment-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "allure-attachment-flush"));
+    }
+    
+    /**
+     * Returns the writer shared by all the requests.
+     *
+     * @return the shared AllureAttachmentWriter
+     */
+    public static AllureAttachmentWriter get() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Attaches an HTTP request or response to the running test or step.
+     *
+     * @param name         the name of the attachment
+     * @param templatePath the Freemarker template that renders the attachment
+     * @param body         the body of the request or response, or null if it has none
+     * @param contentType  the content type of the body, used to prettify it
+     * @param data         builds the data of the attachment from the body to show
+     */
+    public void attach(String name, String templatePath, String body, String contentType, Function<String, AttachmentData> data) {
+        boolean large = body != null && body.length() > envDataConfig.getAllureAttachmentMaxBodyChars();
+        boolean compress = large && envDataConfig.isAllureAttachmentCompress();
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String source = compress ?
+                lifecycle.prepareAttachment(name, "application/gzip", ".html.gz") :
+                lifecycle.prepareAttachment(name, "text/html", ".html");
+        synchronized (pendingLock) {
+            pending++;
+        }
+        if (!large) {
+            executor.execute(() -> write(lifecycle, source, templatePath, () -> data.apply(body == null ? null : prettify(body, contentType)), compress));
+            return;
+        }
+        // A large body is capped on the calling thread, so the queue holds at most maxBodyChars of it
+        if (envDataConfig.getAllureAttachmentLargeBodies() == AttachmentBodyPolicy.DEDUPE) {
+            String hash = sha256(body);
+            // The test is only known on the calling thread
+            String firstOwner = writtenBodies.putIfAbsent(hash, describe(name));
+            if (firstOwner == null) {
+                // The first copy is written in full by the calling thread instead of waiting in the queue
+                write(lifecycle, source, templatePath, () -> data.apply(prettify(body, contentType)), compress);
+                return;
+            }
+            deduplicated.increment();
+            String reference = "Body of " + body.length() + " chars not repeated, it is identical to the " + firstOwner + " (sha256 " + hash + ")";
+            executor.execute(() -> write(lifecycle, source, templatePath, () -> data.apply(reference), compress));
+            return;
+        }
+        truncated.increment();
+        int maxBodyChars = envDataConfig.getAllureAttachmentMaxBodyChars();
+        // Truncated before it is prettified, a truncated JSON or XML body is shown as it was sent
+        String truncatedBody = body.substring(0, maxBodyChars) + "\n... truncated, " + (body.length() - maxBodyChars) + " more chars";
+        executor.execute(() -> write(lifecycle, source, templatePath, () -> data.apply(truncatedBody), compress));
+    }
+    
+    /**
+     * Waits until the attachments handed to the writer so far are written, for up to 30 seconds.
+     */
+    public void flush() {
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+        synchronized (pendingLock) {
+            long remaining = FLUSH_TIMEOUT_MILLIS;
+            while (pending > 0 && remaining > 0) {
+                try {
+                    pendingLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+    
+    /**
+     * Logs how many attachments the writer has written and their size on disk.
+     */
+    public void logStats() {
+        logger.info("Allure attachments: {} written, {} bytes rendered, {} bytes on disk, {} bodies truncated, {} bodies deduplicated",
+                attachments.sum(), renderedBytes.sum(), writtenBytes.sum(), truncated.sum(), deduplicated.sum());
+    }
+    
+    private void write(AllureLifecycle lifecycle, String source, String templatePath, Supplier<AttachmentData> data, boolean compress) {
+        try {
+            byte[] content = new FreemarkerAttachmentRenderer(templatePath).render(data.get()).getContent().getBytes(StandardCharsets.UTF_8);
+            renderedBytes.add(content.length);
+            if (compress) {
+                content = gzip(content);
+            }
+            lifecycle.writeAttachment(source, new ByteArrayInputStream(content));
+            attachments.increment();
+            writtenBytes.add(content.length);
+        } catch (RuntimeException e) {
+            logger.warn("Could not write the Allure attachment {}", source, e);
+        } finally {
+            synchronized (pendingLock) {
+                if (--pending == 0) {
+                    pendingLock.notifyAll();
+                }
+            }
+        }
+    }
+    
+    private String describe(String name) {
+        ITestResult testResult = Reporter.getCurrentTestResult();
+        return testResult == null ? name + " attachment" : name + " attachment of " + testResult.getName();
+    }
+    
+    private static String prettify(String body, String contentType) {
+        Parser parser = contentType == null ? null : Parser.fromContentType(contentType);
+        if (parser == null) {
+            return body;
+        }
+        try {
+            return new Prettifier().prettify(body, parser);
+        } catch (RuntimeException e) {
+            return body;
+        }
+    }
+    
+    private static String sha256(String body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,271 @@
+package utils.service.http;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import models.TransferSize;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.slf4j.Logger;
+import utils.config.EnvDataConfig;
+import utils.enums.HttpCompression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compresses the request bodies and measures the bytes each exchange sends and receives on the wire against its decoded size.
+ * <p>
+ * With http.compression.request set to gzip or deflate, bodies of at least http.compression.request.minBytes
+ * are sent compressed with a Content-Encoding header. Multipart and form requests, files and streams are sent as they are.
+ * The response encodings offered are set by http.compression.accept and decoded on the fly by the HTTP client,
+ * or by the HTTP/2 transport. Brotli is not offered, neither the JDK nor HttpClient 4 can decode it.
+ * <p>
+ * The sizes of the last exchange of the thread are picked up by Rest and Soap into the ContextData of the test,
+ * and the run-wide totals are logged at the end of the suite.
+ * The filter runs after the Allure and logging filters, so the report shows the bodies decoded.
+ */
+public class CompressionFilter implements OrderedFilter {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(CompressionFilter.class);
+    private static final CompressionFilter INSTANCE = new CompressionFilter();
+    private static final ThreadLocal<long[]> RESPONSE_WIRE_BYTES = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<TransferSize> LAST_TRANSFER = new ThreadLocal<>();
+    
+    private final EnvDataConfig envDataConfig = new EnvDataConfig();
+    private final LongAdder exchanges = new LongAdder();
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder requestWireBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder responseWireBytes = new LongAdder();
+    
+    private CompressionFilter() {
+    }
+    
+    /**
+     * Returns the filter shared by all the requests.
+     *
+     * @return the shared CompressionFilter
+     */
+    public static CompressionFilter get() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Returns and clears the sizes of the last exchange sent through the filter on the current thread.
+     *
+     * @return the sizes of the last exchange, or null if none was sent since the last call
+     */
+    public static TransferSize takeLastTransfer() {
+        TransferSize transfer = LAST_TRANSFER.get();
+        LAST_TRANSFER.remove();
+        return transfer;
+    }
+    
+    /**
+     * Returns the interceptor the shared HTTP client uses to count the response bytes before they are decoded.
+     * It must run before the decoding interceptors of RestAssured, which are added to the client on every request.
+     *
+     * @return the counting response interceptor
+     */
+    static HttpResponseInterceptor wireBytesInterceptor() {
+        return (response, context) -> {
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                response.setEntity(new CountingEntity(entity));
+            }
+        };
+    }
+    
+    /**
+     * Decodes a response body received by the HTTP/2 transport, which does not decode it itself, and counts its wire bytes.
+     *
+     * @param body            the body as it was received
+     * @param contentEncoding the Content-Encoding header of the response, may be null
+     * @return the decoded body
+     */
+    static byte[] decode(byte[] body, String contentEncoding) {
+        RESPONSE_WIRE_BYTES.get()[0] += body.length;
+        if (contentEncoding == null || body.length == 0) {
+            return body;
+        }
+        String encoding = contentEncoding.trim();
+        if (!HttpCompression.GZIP.getName().equalsIgnoreCase(encoding) && !HttpCompression.DEFLATE.getName().equalsIgnoreCase(encoding)) {
+            return body;
+        }
+        try (InputStream in = HttpCompression.GZIP.getName().equalsIgnoreCase(encoding) ?
+                new GZIPInputStream(new ByteArrayInputStream(body)) :
+                new InflaterInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot decode a " + encoding + " response body", e);
+        }
+    }
+    
+    /**
+     * Returns the value of the Accept-Encoding header for the encodings of http.compression.accept.
+     *
+     * @param envDataConfig the configuration of the environment
+     * @return the header value, or null if no encoding is accepted
+     */
+    static String acceptEncoding(EnvDataConfig envDataConfig) {
+        List<HttpCompression> accepted = envDataConfig.getHttpCompressionAccept();
+        return accepted.isEmpty() ? null : accepted.stream().map(HttpCompression::getName).collect(Collectors.joining(", "));
+    }
+    
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        byte[] body = bodyBytes(requestSpec.getBody(), requestSpec.getContentType());
+        long sent = body == null ? bodySize(requestSpec.getBody(), requestSpec.getContentType()) : body.length;
+        long sentOnWire = sent;
+        String requestEncoding = null;
+        HttpCompression compression = envDataConfig.getHttpCompressionRequest();
+        if (body != null
+                && compression != HttpCompression.NONE
+                && body.length >= envDataConfig.getHttpCompressionRequestMinBytes()
+                && requestSpec.getMultiPartParams().isEmpty()
+                && requestSpec.getFormParams().isEmpty()
+                && !requestSpec.getHeaders().hasHeaderWithName("Content-Encoding")) {
+            byte[] compressed = compress(body, compression);
+            requestSpec.body(compressed);
+            requestSpec.header("Content-Encoding", compression.getName());
+            sentOnWire = compressed.length;
+            requestEncoding = compression.getName();
+        }
+        RESPONSE_WIRE_BYTES.get()[0] = 0;
+        Response response = ctx.next(requestSpec, responseSpec);
+        // Reads the whole body, so the wire bytes are counted by the time the exchange is recorded
+        long received = response.asByteArray().length;
+        long receivedOnWire = RESPONSE_WIRE_BYTES.get()[0];
+        TransferSize transfer = new TransferSize(sent, sentOnWire, requestEncoding, received, receivedOnWire, response.getHeader("Content-Encoding"));
+        LAST_TRANSFER.set(transfer);
+        exchanges.increment();
+        requestBytes.add(sent);
+        requestWireBytes.add(sentOnWire);
+        responseBytes.add(received);
+        responseWireBytes.add(receivedOnWire);
+        return response;
+    }
+    
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+    
+    /**
+     * Logs the bytes sent and received by the run, decoded and on the wire.
+     */
+    public void logStats() {
+        long count = exchanges.sum();
+        if (count > 0) {
+            logger.info("HTTP compression: {} exchanges, requests {} bytes ({} on the wire), responses {} bytes ({} on the wire), saved {} bytes",
+                    count,
+                    requestBytes.sum(),
+                    requestWireBytes.sum(),
+                    responseBytes.sum(),
+                    responseWireBytes.sum(),
+                    requestBytes.sum() - requestWireBytes.sum() + responseBytes.sum() - responseWireBytes.sum());
+        }
+    }
+    
+    /**
+     * Returns the size of a request body as it is sent, without reading files or streams.
+     *
+     * @param body        the body of the request, may be null
+     * @param contentType the content type of the request, for the charset of a text body
+     * @return the size in bytes, the length of a file, or 0 for no body and for streams, whose size is only known once sent
+     */
+    public static long bodySize(Object body, String contentType) {
+        if (body == null || body instanceof InputStream) {
+            return 0;
+        }
+        if (body instanceof File file) {
+            return file.length();
+        }
+        return bodyBytes(body, contentType).length;
+    }
+    
+    // Files and streams are sent as they are, reading them here would buffer them in memory
+    private static byte[] bodyBytes(Object body, String contentType) {
+        if (body == null || body instanceof File || body instanceof InputStream) {
+            return null;
+        }
+        if (body instanceof byte[] bytes) {
+            return bytes;
+        }
+        return body.toString().getBytes(charset(contentType));
+    }
+    
+    private static Charset charset(String contentType) {
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                String[] nameAndValue = parameter.trim().split("=", 2);
+                if (nameAndValue.length == 2 && "charset".equalsIgnoreCase(nameAndValue[0])) {
+                    return Charset.forName(nameAndValue[1].replace("\"", "").trim());
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+    
+    private static byte[] compress(byte[] body, HttpCompression compression) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (OutputStream out = compression == HttpCompression.GZIP ? new GZIPOutputStream(compressed) : new DeflaterOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compress the request body with " + compression.getName(), e);
+        }
+        return compressed.toByteArray();
+    }
+    
+    /**
+     * Counts the bytes read from a response entity into the wire bytes of the current thread.
+     */
+    private static final class CountingEntity extends HttpEntityWrapper {
+        private CountingEntity(HttpEntity entity) {
+            super(entity);
+        }
+        
+        @Override
+        public InputStream getContent() throws IOException {
+            long[] wireBytes = RESPONSE_WIRE_BYTES.get();
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int read = super.read();
+                    if (read >= 0) {
+                        wireBytes[0]++;
+                    }
+                    return read;
+                }
+                
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        wireBytes[0] += read;
+                    }
+                    return read;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package utils.service.http;
+
+import io.qameta.allure.Allure;
+import io.restassured.specification.FilterableRequestSpecification;
+import models.PhaseTimings;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import utils.common.SharedObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution of every endpoint called during the run, keyed by method, base path and route
+ * (and SOAP action for SOAP requests), so percentiles can be compared instead of the last response time of a test.
+ * <p>
+ * Each endpoint records into its own HdrHistogram ConcurrentHistogram, in microseconds with three significant digits,
+ * whose recording is wait-free, so concurrent requests do not contend on it.
+ * The phases of the exchanges timed by PhaseTimer are averaged per endpoint alongside.
+ * At the end of the suite the percentiles and phases are logged, written to test-results/endpoint-latency.json
+ * and attached to the Allure report as a table.
+ */
+public final class EndpointLatencies {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(EndpointLatencies.class);
+    private static final String LOGGER_SEPARATOR = "====================================================";
+    private static final Path REPORT = Path.of("test-results", "endpoint-latency.json");
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, PhaseTotals> PHASES = new ConcurrentHashMap<>();
+    
+    private EndpointLatencies() {
+    }
+    
+    /**
+     * Records the latency of an exchange under its endpoint.
+     *
+     * @param endpoint the endpoint of the exchange
+     * @param nanos    the latency of the exchange
+     */
+    static void record(String endpoint, long nanos) {
+        HISTOGRAMS.computeIfAbsent(endpoint, key -> new ConcurrentHistogram(SIGNIFICANT_DIGITS))
+                .recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+    
+    /**
+     * Adds the phase timings of an exchange to the averages of its endpoint.
+     *
+     * @param endpoint the endpoint of the exchange
+     * @param timings  the phases of the exchange
+     */
+    static void recordPhases(String endpoint, PhaseTimings timings) {
+        PHASES.computeIfAbsent(endpoint, key -> new PhaseTotals()).add(timings);
+    }
+    
+    /**
+     * Returns the percentiles of every endpoint recorded so far, sorted by endpoint.
+     *
+     * @return the latency statistics of the endpoints
+     */
+    public static List<EndpointLatency> snapshot() {
+        return new TreeMap<>(HISTOGRAMS).entrySet().stream()
+                .map(entry -> EndpointLatency.of(entry.getKey(), entry.getValue().copy(), PHASES.get(entry.getKey())))
+                .toList();
+    }
+    
+    /**
+     * Logs the percentiles of every endpoint, writes them as JSON and attaches them to the Allure report.
+     */
+    public static void report() {
+        List<EndpointLatency> latencies = snapshot();
+        if (latencies.isEmpty()) {
+            return;
+        }
+        logger.info(LOGGER_SEPARATOR);
+        logger.info("Endpoint latency (ms): requests, p50, p90, p99, p99.9, max");
+        latencies.forEach(latency -> logger.info("{}", latency));
+        logger.info("Endpoint phases (average ms): dns, connect, tls, send, ttfb, download, reused connections");
+        latencies.stream()
+                .filter(latency -> latency.phases() != null)
+                .forEach(latency -> logger.info("{}: {}", latency.endpoint(), latency.phases()));
+        logger.info(LOGGER_SEPARATOR);
+        try {
+            Files.createDirectories(REPORT.getParent());
+            SharedObjectMapper.writerFor(List.class).withDefaultPrettyPrinter().writeValue(REPORT.toFile(), latencies);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + REPORT, e);
+        }
+        StringBuilder csv = new StringBuilder("Endpoint,Requests,p50 ms,p90 ms,p99 ms,p99.9 ms,Max ms,"
+                + "DNS ms,Connect ms,TLS ms,Send ms,TTFB ms,Download ms,Reused connections\n");
+        latencies.forEach(latency -> {
+            csv.append(String.format("\"%s\",%d,%.3f,%.3f,%.3f,%.3f,%.3f",
+                    latency.endpoint(), latency.requests(), latency.p50(), latency.p90(), latency.p99(), latency.p999(), latency.max()));
+            PhaseAverages phases = latency.phases();
+            csv.append(phases == null ? ",,,,,,," : String.format(",%s,%s,%s,%s,%s,%s,%d",
+                    csvValue(phases.dns()), csvValue(phases.connect()), csvValue(phases.tls()), csvValue(phases.send()),
+                    csvValue(phases.ttfb()), csvValue(phases.download()), phases.reusedConnections()));
+            csv.append('\n');
+        });
+        Allure.addAttachment("Endpoint latency", "text/csv", csv.toString(), ".csv");
+    }
+    
+    private static String csvValue(Double millis) {
+        return millis == null ? "" : String.format("%.3f", millis);
+    }
+    
+    /**
+     * Returns the key of the endpoint of a request: its method, base path and route, and SOAP action if it has one.
+     *
+     * @param requestSpec the request
+     * @return the endpoint of the request
+     */
+    static String endpoint(FilterableRequestSpecification requestSpec) {
+        String soapAction = requestSpec.getHeaders().getValue("SOAPAction");
+        String endpoint = requestSpec.getMethod() + " " + requestSpec.getBasePath() + requestSpec.getUserDefinedPath();
+        return soapAction == null ? endpoint : endpoint + " " + soapAction;
+    }
+    
+    /**
+     * Request count and latency percentiles of one endpoint, in milliseconds, with the average time of each phase.
+     */
+    public record EndpointLatency(String endpoint, long requests, double p50, double p90, double p99, double p999, double max,
+                                  PhaseAverages phases) {
+        
+        private static EndpointLatency of(String endpoint, Histogram histogram, PhaseTotals phases) {
+            return new EndpointLatency(endpoint,
+                    histogram.getTotalCount(),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    phases == null ? null : phases.averages());
+        }
+        
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s: %d, %.3f, %.3f, %.3f, %.3f, %.3f", endpoint, requests, p50, p90, p99, p999, max);
+        }
+    }
+    
+    /**
+     * Average time of each phase of the exchanges of an endpoint, in milliseconds, null for phases no exchange reported,
+     * and the number of exchanges sent on a reused connection.
+     */
+    public record PhaseAverages(Double dns, Double connect, Double tls, Double send, Double ttfb, Double download, long reusedConnections) {
+        
+        @Override
+        public String toString() {
+            return String.format("%s, %s, %s, %s, %s, %s, %d",
+                    format(dns), format(connect), format(tls), format(send), format(ttfb), format(download), reusedConnections);
+        }
+        
+        private static String format(Double millis) {
+            return millis == null ? "n/a" : String.format("%.3f", millis);
+        }
+    }
+    
+    /**
+     * Running totals of the phases of an endpoint, each phase counted over the exchanges that reported it.
+     */
+    private static final class PhaseTotals {
+        private final PhaseTotal dns = new PhaseTotal();
+        private final PhaseTotal connect = new PhaseTotal();
+        private final PhaseTotal tls = new PhaseTotal();
+        private final PhaseTotal send = new PhaseTotal();
+        private final PhaseTotal ttfb = new PhaseTotal();
+        private final PhaseTotal download = new PhaseTotal();
+        private final LongAdder reusedConnections = new LongAdder();
+        
+        private void add(PhaseTimings timings) {
+            dns.add(timings.getDns());
+            connect.add(timings.getConnect());
+            tls.add(timings.getTls());
+            send.add(timings.getSend());
+            ttfb.add(timings.getTtfb());
+            download.add(timings.getDownload());
+            if (Boolean.TRUE.equals(timings.getConnectionReused())) {
+                reusedConnections.increment();
+            }
+        }
+        
+        private PhaseAverages averages() {
+            return new PhaseAverages(dns.average(), connect.average(), tls.average(), send.average(), ttfb.average(), download.average(),
+                    reusedConnections.sum());
+        }
+    }
+    
+    private static final class PhaseTotal {
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        
+        private void add(Duration duration) {
+            if (duration != null) {
+                nanos.add(duration.toNanos());
+                count.increment();
+            }
+        }
+        
+        private Double average() {
+            long exchanges = count.sum();
+            return exchanges == 0 ? null : nanos.sum() / 1_000_000.0 / exchanges;
+        }
+    }
+}
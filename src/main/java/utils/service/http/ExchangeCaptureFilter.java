@@ -0,0 +1,136 @@
+package utils.service.http;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.MultiPartSpecification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Records the requests and responses of Rest and Soap in the buffer of the running test when the HTTP log mode is on-failure.
+ * <p>
+ * It runs before the Allure and transport filters, so an exchange that fails without a response is recorded with its error.
+ * Bodies are kept unless http.log.capture.bodies is false; the response body is never read for streamed responses.
+ */
+public class ExchangeCaptureFilter implements OrderedFilter {
+    
+    private static final ExchangeCaptureFilter INSTANCE = new ExchangeCaptureFilter(true);
+    private static final ExchangeCaptureFilter STREAMING_INSTANCE = new ExchangeCaptureFilter(false);
+    
+    private final boolean readsResponseBody;
+    
+    private ExchangeCaptureFilter(boolean readsResponseBody) {
+        this.readsResponseBody = readsResponseBody;
+    }
+    
+    /**
+     * Returns the filter shared by the requests whose response body is buffered.
+     *
+     * @return the shared ExchangeCaptureFilter
+     */
+    public static ExchangeCaptureFilter get() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Returns the filter shared by the requests whose response body is streamed, which leaves the body unread.
+     *
+     * @return the shared streaming ExchangeCaptureFilter
+     */
+    public static ExchangeCaptureFilter streaming() {
+        return STREAMING_INSTANCE;
+    }
+    
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        boolean bodies = ExchangeLog.isCapturingBodies();
+        StringBuilder exchange = new StringBuilder();
+        exchange.append(Instant.now()).append(" --> ").append(requestSpec.getMethod()).append(' ').append(requestSpec.getURI());
+        appendHeaders(exchange, requestSpec.getHeaders());
+        appendParams(exchange, "Path params", requestSpec.getNamedPathParams());
+        appendParams(exchange, "Form params", requestSpec.getFormParams());
+        if (!requestSpec.getMultiPartParams().isEmpty()) {
+            exchange.append("\nMultiparts: ").append(requestSpec.getMultiPartParams().stream()
+                    .map(MultiPartSpecification::getControlName)
+                    .collect(Collectors.joining(", ")));
+        }
+        if (bodies && requestSpec.getBody() != null) {
+            exchange.append("\nBody: ").append(bodyOf(requestSpec.getBody(), requestSpec.getContentType()));
+        }
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } catch (Exception e) {
+            // Connection errors such as UnknownHostException are thrown as they are, although they are checked
+            exchange.append("\n<-- failed: ").append(e);
+            ExchangeLog.record(exchange.toString());
+            throw e;
+        }
+        exchange.append("\n<-- ").append(response.getStatusLine()).append(" (")
+                .append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).append(" ms)");
+        appendHeaders(exchange, response.getHeaders());
+        if (bodies && readsResponseBody) {
+            exchange.append("\nBody: ").append(response.asString());
+        }
+        ExchangeLog.record(exchange.toString());
+        return response;
+    }
+    
+    @Override
+    public int getOrder() {
+        return DEFAULT_PRECEDENCE;
+    }
+    
+    /**
+     * Byte array bodies are shown as text only if they are text, as the payloads of the PayloadCache are,
+     * other binary bodies are shown by their size.
+     */
+    private static Object bodyOf(Object body, String contentType) {
+        if (!(body instanceof byte[] bytes)) {
+            return body;
+        }
+        if (isTextual(contentType) || PayloadCache.get().contains(bytes)) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return "<" + bytes.length + " bytes>";
+    }
+    
+    private static boolean isTextual(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String mimeType = contentType.toLowerCase(Locale.ROOT);
+        return mimeType.startsWith("text/")
+                || mimeType.contains("json")
+                || mimeType.contains("xml")
+                || mimeType.startsWith("application/x-www-form-urlencoded");
+    }
+    
+    private void appendHeaders(StringBuilder exchange, Headers headers) {
+        if (headers.exist()) {
+            exchange.append("\nHeaders: ");
+            boolean first = true;
+            for (Header header : headers) {
+                exchange.append(first ? "" : ", ").append(header.getName()).append('=').append(header.getValue());
+                first = false;
+            }
+        }
+    }
+    
+    private void appendParams(StringBuilder exchange, String label, Map<String, ?> params) {
+        if (!params.isEmpty()) {
+            exchange.append('\n').append(label).append(": ").append(params);
+        }
+    }
+}
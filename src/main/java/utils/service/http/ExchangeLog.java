@@ -0,0 +1,138 @@
+package utils.service.http;
+
+import io.qameta.allure.Allure;
+import org.slf4j.Logger;
+import utils.config.EnvDataConfig;
+import utils.enums.HttpLogMode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Decides how the HTTP exchanges of Rest and Soap are logged, following the http.log.mode property of the environment.
+ * <p>
+ * With always every request and response is logged to the console as it happens.
+ * With on-failure the ExchangeCaptureFilter records the exchanges of the running test in a bounded in-memory buffer,
+ * keeping the last http.log.capture.size of them, and they are written to the log and attached to the Allure report
+ * only when the test fails or is retried, instead of attaching every exchange to the report. With off nothing is logged.
+ * <p>
+ * The buffer belongs to the thread that runs the test and is inherited by the threads it starts,
+ * so the async and batch requests of a test are captured with it.
+ */
+public final class ExchangeLog {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(ExchangeLog.class);
+    private static final EnvDataConfig envDataConfig = new EnvDataConfig();
+    private static final InheritableThreadLocal<Buffer> BUFFER = new InheritableThreadLocal<>();
+    
+    private ExchangeLog() {
+    }
+    
+    /**
+     * Returns true if the exchanges are logged to the console as they happen.
+     *
+     * @return true in the always mode
+     */
+    public static boolean isConsoleLogging() {
+        return envDataConfig.getHttpLogMode() == HttpLogMode.ALWAYS;
+    }
+    
+    /**
+     * Returns true if the exchanges are captured and only logged when the test fails.
+     *
+     * @return true in the on-failure mode
+     */
+    public static boolean isCapturing() {
+        return envDataConfig.getHttpLogMode() == HttpLogMode.ON_FAILURE;
+    }
+    
+    /**
+     * Returns true if the bodies of the requests and responses are kept in the captured exchanges.
+     *
+     * @return the value of the http.log.capture.bodies property
+     */
+    static boolean isCapturingBodies() {
+        return envDataConfig.isHttpLogCaptureBodies();
+    }
+    
+    /**
+     * Starts an empty buffer for the method about to run on the current thread, replacing the one of the previous method.
+     */
+    public static void begin() {
+        if (isCapturing()) {
+            BUFFER.set(new Buffer(envDataConfig.getHttpLogCaptureSize()));
+        } else {
+            BUFFER.remove();
+        }
+    }
+    
+    /**
+     * Adds an exchange to the buffer of the current test, dropping the oldest one if the buffer is full.
+     * Exchanges sent outside a test method or a configuration method are not kept.
+     *
+     * @param exchange the formatted exchange
+     */
+    static void record(String exchange) {
+        Buffer buffer = BUFFER.get();
+        if (buffer != null) {
+            buffer.add(exchange);
+        }
+    }
+    
+    /**
+     * Logs the captured exchanges of the current thread and attaches them to the Allure report, then releases the buffer.
+     *
+     * @param methodName the name of the method that failed
+     */
+    public static void flush(String methodName) {
+        Buffer buffer = BUFFER.get();
+        BUFFER.remove();
+        if (buffer == null) {
+            return;
+        }
+        String exchanges = buffer.drain();
+        if (exchanges.isEmpty()) {
+            return;
+        }
+        logger.error("HTTP exchanges of {}:\n{}", methodName, exchanges);
+        Allure.addAttachment("HTTP exchanges", "text/plain", exchanges, ".txt");
+    }
+    
+    /**
+     * Releases the captured exchanges of the current thread without logging them.
+     */
+    public static void discard() {
+        BUFFER.remove();
+    }
+    
+    private static final class Buffer {
+        private final Deque<String> exchanges = new ArrayDeque<>();
+        private final int capacity;
+        private int dropped;
+        
+        private Buffer(int capacity) {
+            this.capacity = Math.max(1, capacity);
+        }
+        
+        private synchronized void add(String exchange) {
+            if (exchanges.size() == capacity) {
+                exchanges.removeFirst();
+                dropped++;
+            }
+            exchanges.addLast(exchange);
+        }
+        
+        private synchronized String drain() {
+            if (exchanges.isEmpty()) {
+                return "";
+            }
+            StringBuilder text = new StringBuilder();
+            if (dropped > 0) {
+                text.append("... ").append(dropped).append(" earlier exchanges dropped\n\n");
+            }
+            text.append(String.join("\n\n", exchanges));
+            exchanges.clear();
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package utils.service.http;
+
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.protocol.RequestAddCookies;
+import org.apache.http.client.protocol.ResponseProcessCookies;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.slf4j.Logger;
+import utils.config.EnvDataConfig;
+import utils.enums.HttpCompression;
+import utils.metrics.MetricsRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared, keep-alive HTTP connection pool used by both Rest and Soap.
+ * Connections are reused across test methods and threads instead of opening a new TCP/TLS connection per request,
+ * which also avoids a TLS handshake for every request to the same route.
+ * <p>
+ * The pool is sized from the environment properties:
+ * http.pool.maxTotal, http.pool.maxPerRoute, http.keepAlive.seconds, http.pool.idleTimeout.seconds and http.socketTimeout.seconds.
+ * The response encodings it accepts and decodes are read from http.compression.accept when the pool is created.
+ * Its connection operator and request executor report the phases of every exchange to PhaseTimer.
+ * <p>
+ * Only the connection manager is shared. RestAssured changes the interceptors and parameters of the HttpClient
+ * on every request, so each thread sends its requests through its own client over the shared connections.
+ * <p>
+ * The statistics of the pool take its lock, so they are never read per request: the peak of open connections
+ * is sampled every second on the evictor thread and when it is read.
+ */
+@SuppressWarnings("deprecation")
+public final class HttpConnectionPool {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(HttpConnectionPool.class);
+    private static final long PEAK_SAMPLE_SECONDS = 1;
+    
+    private final PoolingClientConnectionManager connectionManager;
+    private final ThreadLocal<DefaultHttpClient> httpClients;
+    private final RestAssuredConfig restAssuredConfig;
+    private final ScheduledExecutorService evictor;
+    private final AtomicInteger peakConnections = new AtomicInteger();
+    
+    private HttpConnectionPool(EnvDataConfig envDataConfig) {
+        long keepAliveMillis = TimeUnit.SECONDS.toMillis(envDataConfig.getHttpKeepAliveSeconds());
+        int idleTimeoutSeconds = envDataConfig.getHttpIdleTimeoutSeconds();
+        
+        connectionManager = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault()) {
+            @Override
+            protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemeRegistry) {
+                return PhaseTimer.connectionOperator(schemeRegistry);
+            }
+        };
+        connectionManager.setMaxTotal(envDataConfig.getHttpPoolMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(envDataConfig.getHttpPoolMaxPerRoute());
+        MetricsRegistry.get().gauge("apitest_http_pool_leased_connections", "Connections of the pool in use",
+                () -> connectionManager.getTotalStats().getLeased());
+        MetricsRegistry.get().gauge("apitest_http_pool_available_connections", "Idle connections kept open by the pool",
+                () -> connectionManager.getTotalStats().getAvailable());
+        
+        httpClients = ThreadLocal.withInitial(() -> newHttpClient(keepAliveMillis));
+        
+        // Not reuseHttpClientInstance, which would hand the first client to every thread
+        restAssuredConfig = RestAssuredConfig.config()
+                .httpClient(HttpClientConfig.httpClientConfig()
+                        .httpClientFactory(httpClients::get)
+                        .setParam(CoreConnectionPNames.SO_TIMEOUT, (int) TimeUnit.SECONDS.toMillis(envDataConfig.getHttpSocketTimeoutSeconds())))
+                .decoderConfig(decoderConfig(envDataConfig.getHttpCompressionAccept()));
+        
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS);
+        }, idleTimeoutSeconds, Math.max(1, idleTimeoutSeconds / 2), TimeUnit.SECONDS);
+        evictor.scheduleAtFixedRate(this::samplePeakConnections, PEAK_SAMPLE_SECONDS, PEAK_SAMPLE_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Returns the connection pool of the run, creating it on first access.
+     *
+     * @return the shared HttpConnectionPool
+     */
+    public static HttpConnectionPool get() {
+        return Holder.INSTANCE;
+    }
+    
+    /**
+     * Returns the RestAssured configuration that sends requests through the shared pool.
+     *
+     * @return the pooled RestAssuredConfig
+     */
+    public RestAssuredConfig restAssuredConfig() {
+        return restAssuredConfig;
+    }
+    
+    /**
+     * Returns the current statistics of the pool: leased, pending, available and max connections.
+     *
+     * @return the total statistics of the pool
+     */
+    public PoolStats getStats() {
+        return connectionManager.getTotalStats();
+    }
+    
+    /**
+     * Returns the highest number of connections open in the pool, leased or available, seen by the samples taken so far.
+     * Takes a sample first, so the current connections are always accounted for.
+     *
+     * @return the peak of open connections
+     */
+    public int getPeakConnections() {
+        samplePeakConnections();
+        return peakConnections.get();
+    }
+    
+    /**
+     * Logs the current statistics of the pool.
+     */
+    public void logStats() {
+        PoolStats stats = getStats();
+        logger.info("HTTP connection pool: leased {}, available {}, pending {}, max {}",
+                stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+    
+    private DefaultHttpClient newHttpClient(long keepAliveMillis) {
+        DefaultHttpClient httpClient = new DefaultHttpClient(connectionManager) {
+            @Override
+            protected HttpRequestExecutor createRequestExecutor() {
+                return PhaseTimer.requestExecutor();
+            }
+        };
+        httpClient.setKeepAliveStrategy(keepAliveStrategy(keepAliveMillis));
+        // The client serves every test of its thread, cookies must not leak from one test to another
+        httpClient.removeRequestInterceptorByClass(RequestAddCookies.class);
+        httpClient.removeResponseInterceptorByClass(ResponseProcessCookies.class);
+        httpClient.addResponseInterceptor(CompressionFilter.wireBytesInterceptor());
+        httpClient.addResponseInterceptor(PhaseTimer.downloadInterceptor());
+        return httpClient;
+    }
+    
+    /**
+     * RestAssured offers the encodings it can decode in the Accept-Encoding header of every request,
+     * so the decoders are limited to the encodings of http.compression.accept.
+     */
+    private static DecoderConfig decoderConfig(List<HttpCompression> accepted) {
+        if (accepted.isEmpty()) {
+            return DecoderConfig.decoderConfig().noContentDecoders();
+        }
+        DecoderConfig.ContentDecoder[] decoders = accepted.stream()
+                .map(compression -> DecoderConfig.ContentDecoder.valueOf(compression.name()))
+                .toArray(DecoderConfig.ContentDecoder[]::new);
+        return DecoderConfig.decoderConfig().contentDecoders(decoders[0], Arrays.copyOfRange(decoders, 1, decoders.length));
+    }
+    
+    private void samplePeakConnections() {
+        PoolStats stats = getStats();
+        peakConnections.accumulateAndGet(stats.getLeased() + stats.getAvailable(), Math::max);
+    }
+    
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long maxKeepAliveMillis) {
+        return (HttpResponse response, HttpContext context) -> {
+            HeaderElementIterator elements = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (elements.hasNext()) {
+                HeaderElement element = elements.nextElement();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Math.min(TimeUnit.SECONDS.toMillis(Long.parseLong(element.getValue())), maxKeepAliveMillis);
+                    } catch (NumberFormatException e) {
+                        // Fall back to the configured keep-alive
+                    }
+                }
+            }
+            return maxKeepAliveMillis;
+        };
+    }
+    
+    private static final class Holder {
+        private static final HttpConnectionPool INSTANCE = new HttpConnectionPool(new EnvDataConfig());
+    }
+}
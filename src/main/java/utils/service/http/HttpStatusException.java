@@ -0,0 +1,26 @@
+package utils.service.http;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request whose response body is streamed gets an error status, since the body cannot be
+ * deserialized or written as the caller expects. The error body is read in full and kept here.
+ * <p>
+ * The response is also the last response of the context data, so RestCommonValidations can assert on it.
+ */
+@Getter
+public class HttpStatusException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final int statusCode;
+    private final String statusLine;
+    private final String body;
+    
+    public HttpStatusException(String method, String route, int statusCode, String statusLine, String body) {
+        super(method + " " + route + " returned " + statusLine + ": " + body);
+        this.statusCode = statusCode;
+        this.statusLine = statusLine;
+        this.body = body;
+    }
+}
@@ -0,0 +1,262 @@
+package utils.service.http;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.filter.time.TimingFilter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.internal.RestAssuredResponseImpl;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import utils.config.EnvDataConfig;
+import utils.enums.HttpTransport;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the requests of Rest and Soap over the transport selected by the http.transport property of the environment.
+ * <p>
+ * With http/1.1 the request goes on through RestAssured and the shared connection pool.
+ * With http/2 the exchange is sent by the JDK HttpClient, which multiplexes concurrent requests to an origin over one connection,
+ * and its answer is turned back into a RestAssured Response, so validations and logging stay the same.
+ * The JDK client does not decode compressed bodies, so the accepted encodings are negotiated and decoded here.
+ * Multipart and form requests always use HTTP/1.1.
+ * The http.socketTimeout.seconds of the environment bounds the wait for a response on either transport.
+ * <p>
+ * The filter runs last, after the Allure and logging filters, and records the latency of every exchange in TransportMetrics
+ * and in the histogram of its endpoint in EndpointLatencies, keeping the last one of the thread for takeLastLatencyNanos.
+ * It also opens the exchange whose phases PhaseTimer times.
+ */
+public class HttpTransportFilter implements OrderedFilter {
+    
+    // Handled by the JDK client itself, it rejects requests that set them
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+    private static final HttpTransportFilter INSTANCE = new HttpTransportFilter();
+    private static final ThreadLocal<long[]> LAST_LATENCY_NANOS = ThreadLocal.withInitial(() -> new long[]{-1});
+    
+    private final EnvDataConfig envDataConfig = new EnvDataConfig();
+    
+    private HttpTransportFilter() {
+    }
+    
+    /**
+     * Returns the filter shared by all the requests.
+     *
+     * @return the shared HttpTransportFilter
+     */
+    public static HttpTransportFilter get() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Returns and clears the latency of the last exchange sent through the filter on the current thread,
+     * from the request leaving the other filters to its response being received.
+     *
+     * @return the latency in nanoseconds, or -1 if no exchange was sent since the last call
+     */
+    public static long takeLastLatencyNanos() {
+        long[] last = LAST_LATENCY_NANOS.get();
+        long nanos = last[0];
+        last[0] = -1;
+        return nanos;
+    }
+    
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        long start = System.nanoTime();
+        String endpoint = EndpointLatencies.endpoint(requestSpec);
+        if (envDataConfig.getHttpTransport() != HttpTransport.HTTP_2
+                || !requestSpec.getMultiPartParams().isEmpty()
+                || !requestSpec.getFormParams().isEmpty()) {
+            PhaseTimer.begin(endpoint);
+            try {
+                Response response = ctx.next(requestSpec, responseSpec);
+                long nanos = System.nanoTime() - start;
+                LAST_LATENCY_NANOS.get()[0] = nanos;
+                TransportMetrics.recordHttp1(nanos);
+                EndpointLatencies.record(endpoint, nanos);
+                return response;
+            } finally {
+                PhaseTimer.end();
+            }
+        }
+        URI uri = URI.create(requestSpec.getURI());
+        long[] headersNanos = new long[1];
+        HttpResponse<byte[]> http2Response = send(toHttpRequest(requestSpec, uri), headersNanos);
+        long end = System.nanoTime();
+        long nanos = end - start;
+        LAST_LATENCY_NANOS.get()[0] = nanos;
+        TransportMetrics.recordHttp2(nanos,
+                uri.getScheme() + "://" + uri.getAuthority(),
+                http2Response.version() == HttpClient.Version.HTTP_2);
+        EndpointLatencies.record(endpoint, nanos);
+        PhaseTimer.recordHttp2(endpoint, start, headersNanos[0], end);
+        return toResponse(http2Response, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+    
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+    
+    private HttpRequest toHttpRequest(FilterableRequestSpecification requestSpec, URI uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(envDataConfig.getHttpSocketTimeoutSeconds()))
+                .method(requestSpec.getMethod(), bodyPublisher(requestSpec.getBody()));
+        for (Header header : requestSpec.getHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase())) {
+                builder.header(header.getName(), header.getValue());
+            }
+        }
+        if (requestSpec.getContentType() != null && !requestSpec.getHeaders().hasHeaderWithName("Content-Type")) {
+            builder.header("Content-Type", requestSpec.getContentType());
+        }
+        // Over HTTP/1.1 the header is added by the HTTP client from the same setting
+        String acceptEncoding = CompressionFilter.acceptEncoding(envDataConfig);
+        if (acceptEncoding != null && !requestSpec.getHeaders().hasHeaderWithName("Accept-Encoding")) {
+            builder.header("Accept-Encoding", acceptEncoding);
+        }
+        return builder.build();
+    }
+    
+    private HttpRequest.BodyPublisher bodyPublisher(Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        if (body instanceof byte[] bytes) {
+            return HttpRequest.BodyPublishers.ofByteArray(bytes);
+        }
+        if (body instanceof File file) {
+            try {
+                return HttpRequest.BodyPublishers.ofFile(file.toPath());
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException("Request body file " + file + " does not exist", e);
+            }
+        }
+        if (body instanceof InputStream inputStream) {
+            // The stream can be read once, as when RestAssured sends it
+            return HttpRequest.BodyPublishers.ofInputStream(() -> inputStream);
+        }
+        return HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8);
+    }
+    
+    private HttpResponse<byte[]> send(HttpRequest request, long[] headersNanos) {
+        try {
+            // The handler is called when the response headers arrive, before the body is received
+            return Http2Client.INSTANCE.send(request, responseInfo -> {
+                headersNanos[0] = System.nanoTime();
+                return HttpResponse.BodyHandlers.ofByteArray().apply(responseInfo);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("HTTP/2 request to " + request.uri() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("HTTP/2 request to " + request.uri() + " was interrupted", e);
+        }
+    }
+    
+    private Response toResponse(HttpResponse<byte[]> http2Response, long responseTimeMillis) {
+        List<Header> headers = new ArrayList<>();
+        for (Map.Entry<String, List<String>> header : http2Response.headers().map().entrySet()) {
+            for (String value : header.getValue()) {
+                headers.add(new Header(header.getKey(), value));
+            }
+        }
+        String protocol = http2Response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(http2Response.statusCode())
+                .setStatusLine(protocol + " " + http2Response.statusCode())
+                .setHeaders(new Headers(headers))
+                .setBody(CompressionFilter.decode(http2Response.body(), http2Response.headers().firstValue("Content-Encoding").orElse(null)));
+        http2Response.headers().firstValue("Content-Type").ifPresent(builder::setContentType);
+        Response response = builder.build();
+        // Response.getTime() is read from the filter context, which is only filled in for exchanges sent by RestAssured
+        if (response instanceof RestAssuredResponseImpl restAssuredResponse) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put(TimingFilter.RESPONSE_TIME_MILLISECONDS, responseTimeMillis);
+            restAssuredResponse.setFilterContextProperties(properties);
+        }
+        return response;
+    }
+    
+    /**
+     * The HTTP/2 client of the run, created on the first HTTP/2 request.
+     * Like the RestAssured requests it trusts all certificates, the targets are test environments with self-signed certificates.
+     */
+    private static final class Http2Client {
+        private static final HttpClient INSTANCE = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(30))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .sslContext(trustAllSslContext())
+                .build();
+        
+        private static SSLContext trustAllSslContext() {
+            try {
+                SSLContext sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(null, new TrustManager[]{new TrustAllManager()}, null);
+                return sslContext;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not create the SSL context of the HTTP/2 client", e);
+            }
+        }
+    }
+    
+    private static final class TrustAllManager extends X509ExtendedTrustManager {
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+        }
+        
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+        }
+        
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+        }
+        
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+        }
+        
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {
+        }
+        
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {
+        }
+        
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package utils.service.http;
+
+import lombok.SneakyThrows;
+import org.slf4j.Logger;
+import utils.common.SharedObjectMapper;
+import utils.config.EnvDataConfig;
+import utils.enums.PayloadCacheKey;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in cache of serialized request bodies, for runs that send the same payload objects many times.
+ * <p>
+ * When http.body.cache.size is above 0, a body object is serialized to JSON bytes once and the same byte array
+ * is sent every time the object is sent again, keeping at most http.body.cache.size payloads, least recently used first out.
+ * With http.body.cache.keys=identity a payload is found again only if it is the same instance;
+ * with equality, payloads that are equal share the bytes. Either way the cached payloads must not be modified after they are sent.
+ * Strings, byte arrays, files and streams are sent as they are.
+ * <p>
+ * The console log of RestAssured prints a cached body as byte values, so the cache is meant to be used
+ * with http.log.mode=on-failure or off; the captured exchanges show the body as text.
+ */
+public final class PayloadCache {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(PayloadCache.class);
+    private static final PayloadCache INSTANCE = new PayloadCache();
+    
+    private final EnvDataConfig envDataConfig = new EnvDataConfig();
+    private final Map<Object, byte[]> payloads = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, byte[]> eldest) {
+            boolean evict = size() > envDataConfig.getHttpBodyCacheSize();
+            if (evict) {
+                cachedArrays.remove(new IdentityKey(eldest.getValue()));
+            }
+            return evict;
+        }
+    };
+    // The byte arrays of payloads, kept in step with it under its lock, so contains is a lookup without the lock
+    private final Set<IdentityKey> cachedArrays = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesReused = new LongAdder();
+    
+    private PayloadCache() {
+    }
+    
+    /**
+     * Returns the cache shared by all the requests.
+     *
+     * @return the shared PayloadCache
+     */
+    public static PayloadCache get() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Returns the body to send for a payload: its cached JSON bytes when the cache is enabled and the payload is an object,
+     * or the payload itself otherwise.
+     *
+     * @param body the payload of the request
+     * @return the serialized payload, or the payload as it was given
+     */
+    @SneakyThrows
+    public Object resolve(Object body) {
+        if (envDataConfig.getHttpBodyCacheSize() <= 0 || !isSerializable(body)) {
+            return body;
+        }
+        Object key = envDataConfig.getHttpBodyCacheKeys() == PayloadCacheKey.IDENTITY ? new IdentityKey(body) : body;
+        byte[] bytes;
+        synchronized (payloads) {
+            bytes = payloads.get(key);
+        }
+        if (bytes != null) {
+            hits.increment();
+            bytesReused.add(bytes.length);
+            return bytes;
+        }
+        misses.increment();
+        bytes = SharedObjectMapper.writerFor(body.getClass()).writeValueAsBytes(body);
+        synchronized (payloads) {
+            cachedArrays.add(new IdentityKey(bytes));
+            byte[] replaced = payloads.put(key, bytes);
+            if (replaced != null) {
+                cachedArrays.remove(new IdentityKey(replaced));
+            }
+        }
+        return bytes;
+    }
+    
+    /**
+     * Returns true if a byte array is one of the payloads of the cache, that is serialized JSON.
+     *
+     * @param bytes the body of a request
+     * @return true if the array is cached, compared by identity
+     */
+    public boolean contains(byte[] bytes) {
+        return envDataConfig.getHttpBodyCacheSize() > 0 && cachedArrays.contains(new IdentityKey(bytes));
+    }
+    
+    /**
+     * Logs the hits and misses of the cache, if it was used.
+     */
+    public void logStats() {
+        long requests = hits.sum() + misses.sum();
+        if (requests > 0) {
+            int size;
+            synchronized (payloads) {
+                size = payloads.size();
+            }
+            logger.info("Request body cache: {} hits, {} misses, {} payloads cached, {} bytes reused without serializing",
+                    hits.sum(), misses.sum(), size, bytesReused.sum());
+        }
+    }
+    
+    private static boolean isSerializable(Object body) {
+        return body != null
+                && !(body instanceof CharSequence)
+                && !(body instanceof byte[])
+                && !(body instanceof File)
+                && !(body instanceof InputStream);
+    }
+    
+    private record IdentityKey(Object payload) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof IdentityKey key && key.payload == payload;
+        }
+        
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(payload);
+        }
+    }
+}
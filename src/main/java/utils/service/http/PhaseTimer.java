@@ -0,0 +1,323 @@
+package utils.service.http;
+
+import models.PhaseTimings;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.protocol.ClientContext;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.HttpInetSocketAddress;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeLayeredSocketFactory;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import javax.net.ssl.SSLSocket;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times the phases of the exchanges sent through the shared connection pool: DNS, TCP connect, TLS handshake,
+ * request write, time to first byte and body download, and whether a pooled connection was reused.
+ * <p>
+ * HttpTransportFilter opens an exchange on the sending thread, the connection operator and request executor of the pool
+ * add the phases they run, and the exchange is finished when its response body has been read to the end or closed.
+ * The timings are then kept for Rest and Soap to put in the ContextData of the test, and added to the endpoint in EndpointLatencies.
+ * Exchanges sent over HTTP/2 only report the time to first byte and the download, the JDK client does not expose its connections.
+ */
+@SuppressWarnings("deprecation")
+public final class PhaseTimer {
+    
+    private static final ThreadLocal<Exchange> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<PhaseTimings> LAST = new ThreadLocal<>();
+    
+    private PhaseTimer() {
+    }
+    
+    /**
+     * Returns and clears the timings of the last exchange finished on the current thread.
+     *
+     * @return the timings of the last exchange, or null if none was finished since the last call
+     */
+    public static PhaseTimings takeLastTimings() {
+        PhaseTimings timings = LAST.get();
+        LAST.remove();
+        return timings;
+    }
+    
+    /**
+     * Opens the exchange of the current thread, before the request is handed to the HTTP client.
+     *
+     * @param endpoint the endpoint of the request, as keyed in EndpointLatencies
+     */
+    static void begin(String endpoint) {
+        CURRENT.set(new Exchange(endpoint));
+    }
+    
+    /**
+     * Detaches the exchange from the current thread once the client returned, its body may still be read later.
+     */
+    static void end() {
+        CURRENT.remove();
+    }
+    
+    /**
+     * Records an exchange sent by the HTTP/2 transport, whose body was received in full by the JDK client.
+     *
+     * @param endpoint     the endpoint of the request
+     * @param startNanos   when the request was handed to the client
+     * @param headersNanos when the response headers were received
+     * @param endNanos     when the response body was received
+     */
+    static void recordHttp2(String endpoint, long startNanos, long headersNanos, long endNanos) {
+        CURRENT.remove();
+        finish(endpoint, new PhaseTimings(null, null, null, null,
+                Duration.ofNanos(headersNanos - startNanos),
+                Duration.ofNanos(endNanos - headersNanos),
+                Duration.ofNanos(endNanos - startNanos),
+                null));
+    }
+    
+    /**
+     * Returns the connection operator of the pool, which times the DNS lookup, the TCP connect and the TLS handshake of new connections.
+     *
+     * @param schemeRegistry the scheme registry of the pool
+     * @return the timing connection operator
+     */
+    static ClientConnectionOperator connectionOperator(SchemeRegistry schemeRegistry) {
+        return new TimedConnectionOperator(schemeRegistry);
+    }
+    
+    /**
+     * Returns the request executor of the client, which times writing the request and waiting for the response headers.
+     *
+     * @return the timing request executor
+     */
+    static HttpRequestExecutor requestExecutor() {
+        return new HttpRequestExecutor() {
+            @Override
+            protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection connection, HttpContext context) throws IOException, HttpException {
+                Exchange exchange = CURRENT.get();
+                if (exchange != null) {
+                    exchange.startRoundTrip();
+                }
+                long start = System.nanoTime();
+                try {
+                    return super.doSendRequest(request, connection, context);
+                } finally {
+                    if (exchange != null) {
+                        exchange.send += System.nanoTime() - start;
+                    }
+                }
+            }
+            
+            @Override
+            protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection connection, HttpContext context) throws HttpException, IOException {
+                long start = System.nanoTime();
+                try {
+                    return super.doReceiveResponse(request, connection, context);
+                } finally {
+                    Exchange exchange = CURRENT.get();
+                    if (exchange != null) {
+                        exchange.headersNanos = System.nanoTime();
+                        exchange.ttfb += exchange.headersNanos - start;
+                    }
+                }
+            }
+        };
+    }
+    
+    /**
+     * Returns the interceptor that finishes the exchange of a response once its body has been read,
+     * or straight away if the response has no body.
+     *
+     * @return the download response interceptor
+     */
+    static HttpResponseInterceptor downloadInterceptor() {
+        return (response, context) -> {
+            Exchange exchange = CURRENT.get();
+            if (exchange == null) {
+                return;
+            }
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                exchange.finish(System.nanoTime());
+            } else {
+                response.setEntity(new TimedEntity(entity, exchange));
+            }
+        };
+    }
+    
+    private static void finish(String endpoint, PhaseTimings timings) {
+        LAST.set(timings);
+        EndpointLatencies.recordPhases(endpoint, timings);
+    }
+    
+    /**
+     * The phases of one exchange, in nanoseconds. A redirect or retry starts a new round trip on the same exchange.
+     */
+    private static final class Exchange {
+        private final String endpoint;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private long startNanos = System.nanoTime();
+        private long headersNanos;
+        private long dns;
+        private long connect;
+        private long tls;
+        private long send;
+        private long ttfb;
+        private boolean connectionOpened;
+        
+        private Exchange(String endpoint) {
+            this.endpoint = endpoint;
+        }
+        
+        private void startRoundTrip() {
+            if (finished.compareAndSet(true, false)) {
+                startNanos = System.nanoTime();
+                dns = 0;
+                connect = 0;
+                tls = 0;
+                send = 0;
+                ttfb = 0;
+                connectionOpened = false;
+            }
+        }
+        
+        private void finish(long endNanos) {
+            if (finished.compareAndSet(false, true)) {
+                long headers = headersNanos == 0 ? endNanos : headersNanos;
+                PhaseTimer.finish(endpoint, new PhaseTimings(
+                        Duration.ofNanos(dns),
+                        Duration.ofNanos(connect),
+                        Duration.ofNanos(tls),
+                        Duration.ofNanos(send),
+                        Duration.ofNanos(ttfb),
+                        Duration.ofNanos(endNanos - headers),
+                        Duration.ofNanos(endNanos - startNanos),
+                        !connectionOpened));
+            }
+        }
+    }
+    
+    /**
+     * Opens the connections of the pool like DefaultClientConnectionOperator, connecting the socket before layering TLS on it,
+     * so the TCP connect and the handshake are timed apart.
+     */
+    private static final class TimedConnectionOperator extends DefaultClientConnectionOperator {
+        private TimedConnectionOperator(SchemeRegistry schemeRegistry) {
+            super(schemeRegistry);
+        }
+        
+        @Override
+        public void openConnection(OperatedClientConnection connection, HttpHost target, InetAddress local, HttpContext context, HttpParams params) throws IOException {
+            Exchange exchange = CURRENT.get();
+            if (exchange != null) {
+                exchange.startRoundTrip();
+            }
+            SchemeRegistry registry = context.getAttribute(ClientContext.SCHEME_REGISTRY) instanceof SchemeRegistry contextRegistry ?
+                    contextRegistry : schemeRegistry;
+            Scheme scheme = registry.getScheme(target.getSchemeName());
+            SchemeSocketFactory socketFactory = scheme.getSchemeSocketFactory();
+            long dnsStart = System.nanoTime();
+            InetAddress[] addresses = resolveHostname(target.getHostName());
+            long connectStart = System.nanoTime();
+            int port = scheme.resolvePort(target.getPort());
+            for (int i = 0; i < addresses.length; i++) {
+                Socket socket = socketFactory.createSocket(params);
+                connection.opening(socket, target);
+                InetSocketAddress remoteAddress = new HttpInetSocketAddress(target, addresses[i], port);
+                InetSocketAddress localAddress = local == null ? null : new InetSocketAddress(local, 0);
+                try {
+                    Socket connected;
+                    long handshakeStart;
+                    if (socketFactory instanceof SchemeLayeredSocketFactory layeredFactory && !(socket instanceof SSLSocket)) {
+                        connected = PlainSocketFactory.getSocketFactory().connectSocket(socket, remoteAddress, localAddress, params);
+                        handshakeStart = System.nanoTime();
+                        connected = layeredFactory.createLayeredSocket(connected, target.getHostName(), port, params);
+                    } else {
+                        connected = socketFactory.connectSocket(socket, remoteAddress, localAddress, params);
+                        handshakeStart = System.nanoTime();
+                    }
+                    long end = System.nanoTime();
+                    if (connected != socket) {
+                        connection.opening(connected, target);
+                    }
+                    prepareSocket(connected, context, params);
+                    connection.openCompleted(socketFactory.isSecure(connected), params);
+                    if (exchange != null) {
+                        exchange.connectionOpened = true;
+                        exchange.dns += connectStart - dnsStart;
+                        exchange.connect += handshakeStart - connectStart;
+                        exchange.tls += end - handshakeStart;
+                    }
+                    return;
+                } catch (ConnectException | ConnectTimeoutException e) {
+                    if (i == addresses.length - 1) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Finishes the exchange when the body has been read to the end or closed.
+     */
+    private static final class TimedEntity extends HttpEntityWrapper {
+        private final Exchange exchange;
+        
+        private TimedEntity(HttpEntity entity, Exchange exchange) {
+            super(entity);
+            this.exchange = exchange;
+        }
+        
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int read = super.read();
+                    if (read < 0) {
+                        exchange.finish(System.nanoTime());
+                    }
+                    return read;
+                }
+                
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read < 0) {
+                        exchange.finish(System.nanoTime());
+                    }
+                    return read;
+                }
+                
+                @Override
+                public void close() throws IOException {
+                    exchange.finish(System.nanoTime());
+                    super.close();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package utils.service.http;
+
+import org.slf4j.Logger;
+import utils.enums.HttpTransport;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-wide request counts, latency and connection usage of each HTTP transport, so HTTP/1.1 and HTTP/2 runs can be compared.
+ * <p>
+ * HTTP/1.1 connections are the peak number of connections open in the shared pool, as sampled by the pool.
+ * HTTP/2 connections are the origins that negotiated HTTP/2, since all the requests to an origin share one multiplexed connection;
+ * requests to origins that only speak HTTP/1.1 are counted as fallbacks.
+ */
+public final class TransportMetrics {
+    
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(TransportMetrics.class);
+    private static final Map<HttpTransport, Stats> STATS = new EnumMap<>(HttpTransport.class);
+    
+    static {
+        for (HttpTransport transport : HttpTransport.values()) {
+            STATS.put(transport, new Stats());
+        }
+    }
+    
+    private TransportMetrics() {
+    }
+    
+    /**
+     * Records an exchange sent over HTTP/1.1 through the shared connection pool.
+     *
+     * @param nanos the latency of the exchange
+     */
+    static void recordHttp1(long nanos) {
+        Stats stats = STATS.get(HttpTransport.HTTP_1_1);
+        stats.record(nanos);
+    }
+    
+    /**
+     * Records an exchange sent with the HTTP/2 transport.
+     *
+     * @param nanos      the latency of the exchange
+     * @param origin     the scheme, host and port of the request
+     * @param negotiated true if the origin answered over HTTP/2, false if the client fell back to HTTP/1.1
+     */
+    static void recordHttp2(long nanos, String origin, boolean negotiated) {
+        Stats stats = STATS.get(HttpTransport.HTTP_2);
+        stats.record(nanos);
+        if (negotiated) {
+            stats.origins.add(origin);
+            stats.connections.set(stats.origins.size());
+        } else {
+            stats.fallbacks.increment();
+        }
+    }
+    
+    /**
+     * Logs the metrics of every transport that sent at least one request.
+     */
+    public static void logStats() {
+        STATS.forEach((transport, stats) -> {
+            long requests = stats.requests.sum();
+            if (requests > 0) {
+                if (transport == HttpTransport.HTTP_1_1) {
+                    stats.connections.set(HttpConnectionPool.get().getPeakConnections());
+                }
+                logger.info("{}: {} requests, avg {} ms, max {} ms, connections {}, fallbacks to HTTP/1.1 {}",
+                        transport.getName(),
+                        requests,
+                        TimeUnit.NANOSECONDS.toMillis(stats.nanos.sum() / requests),
+                        TimeUnit.NANOSECONDS.toMillis(stats.maxNanos.get()),
+                        stats.connections.get(),
+                        stats.fallbacks.sum());
+            }
+        });
+    }
+    
+    private static final class Stats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final LongAdder fallbacks = new LongAdder();
+        private final Set<String> origins = ConcurrentHashMap.newKeySet();
+        
+        private void record(long exchangeNanos) {
+            requests.increment();
+            nanos.add(exchangeNanos);
+            maxNanos.accumulateAndGet(exchangeNanos, Math::max);
+        }
+    }
+}
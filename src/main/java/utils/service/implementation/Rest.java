@@ -1,36 +1,71 @@
 package utils.service.implementation;
 
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.datatype.jsr310.ser.OffsetDateTimeSerializer;
 import domain.interfaces.IEndpoint;
-import io.qameta.allure.restassured.AllureRestAssured;
 import io.restassured.RestAssured;
+import io.restassured.builder.MultiPartSpecBuilder;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.builder.ResponseSpecBuilder;
 import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
 import io.restassured.http.Method;
 import io.restassured.response.Response;
+import io.restassured.response.ValidatableResponse;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.ResponseSpecification;
+import models.BatchRequest;
+import models.BatchResult;
 import models.ContextData;
+import models.DownloadResult;
+import models.UploadSource;
 import org.slf4j.Logger;
 import utils.common.SerializationUtil;
+import utils.common.SharedObjectMapper;
 import utils.config.SecretsConfig;
 import utils.enums.Environment;
 import utils.factories.RestServiceObjectFactory;
 import utils.factories.interfaces.IRestServiceFactory;
+import utils.jfr.HttpExchangeEvent;
+import utils.metrics.RunMetrics;
+import utils.service.http.AllureAttachmentFilter;
+import utils.service.http.CompressionFilter;
+import utils.service.http.ExchangeCaptureFilter;
+import utils.service.http.ExchangeLog;
+import utils.service.http.HttpConnectionPool;
+import utils.service.http.HttpStatusException;
+import utils.service.http.HttpTransportFilter;
+import utils.service.http.PayloadCache;
+import utils.service.http.PhaseTimer;
 import utils.service.interfaces.IRestService;
 
 import java.io.File;
-import java.text.SimpleDateFormat;
-import java.time.OffsetDateTime;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 import static io.restassured.http.ContentType.JSON;
 import static io.restassured.http.ContentType.MULTIPART;
@@ -44,11 +79,14 @@ public class Rest implements IRestService {
     
     public static final String REST_CONTENT_TYPE = "application/json";
     private static final Logger logger = org.slf4j.LoggerFactory.getLogger(Rest.class);
+    private static final Map<String, RequestSpecification> REQUEST_SPECS = new ConcurrentHashMap<>();
+    // Blocking RestAssured calls are parked on virtual threads, so waiting on a response costs no platform thread
+    private static final ExecutorService ASYNC_REQUESTS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("rest-async-", 0).factory());
+    private static final long DOWNLOAD_CHUNK_BYTES = 1024 * 1024;
     private final ContextData contextData;
-    private final ObjectMapper mapper = new ObjectMapper();
     protected SecretsConfig secretsConfig = new SecretsConfig();
     private IRestServiceFactory restServiceObjectFactory;
-    private RequestSpecification requestSpec;
     private ResponseSpecification responseSpec;
     
     /**
@@ -58,13 +96,7 @@ public class Rest implements IRestService {
     public Rest() {
         this.contextData = new ContextData();
         this.restServiceObjectFactory = new RestServiceObjectFactory(this);
-        this.requestSpec = getRequestSpec();
         this.responseSpec = getResponseSpec();
-        mapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ"));
-        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        mapper.registerModule(new JavaTimeModule());
-        mapper.registerModule(new SimpleModule().addSerializer(OffsetDateTime.class, OffsetDateTimeSerializer.INSTANCE));
     }
     
     /**
@@ -97,7 +129,7 @@ public class Rest implements IRestService {
      * @return the response of the request.
      */
     public Response postRequest(IEndpoint basePath, String route, Object body) {
-        return postRequest(requestSpec, basePath, route, body, null, null, null);
+        return postRequest(sharedRequestSpec(JSON, false), basePath, route, body, null, null, null);
     }
     
     /**
@@ -110,7 +142,7 @@ public class Rest implements IRestService {
      * @return the response of the request.
      */
     public Response postRequest(IEndpoint basePath, String route, Object body, Map<String, Object> pathParams) {
-        return postRequest(requestSpec, basePath, route, body, pathParams, null, null);
+        return postRequest(sharedRequestSpec(JSON, false), basePath, route, body, pathParams, null, null);
     }
     
     /**
@@ -125,7 +157,7 @@ public class Rest implements IRestService {
      */
     public Response postRequest(IEndpoint basePath, String route, Object body, String pathParameterName, Object pathParameterValue) {
         Map<String, Object> pathParams = Map.of(pathParameterName, pathParameterValue);
-        return postRequest(requestSpec, basePath, route, body, pathParams, null, null);
+        return postRequest(sharedRequestSpec(JSON, false), basePath, route, body, pathParams, null, null);
     }
     
     /**
@@ -138,7 +170,7 @@ public class Rest implements IRestService {
      * @return the response of the request.
      */
     public Response postRequest(IEndpoint basePath, String route, Object body, File file) {
-        return postRequest(requestSpec, basePath, route, body, null, null, file);
+        return postRequest(sharedRequestSpec(JSON, false), basePath, route, body, null, null, file);
     }
     
     /**
@@ -152,7 +184,7 @@ public class Rest implements IRestService {
      * @return the response of the request.
      */
     public Response postRequest(IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, File file) {
-        return postRequest(requestSpec, basePath, route, body, pathParams, null, file);
+        return postRequest(sharedRequestSpec(JSON, false), basePath, route, body, pathParams, null, file);
     }
     
     /**
@@ -168,7 +200,7 @@ public class Rest implements IRestService {
      */
     public Response postRequest(IEndpoint basePath, String route, Object body, String pathParameterName, Object pathParameterValue, File file) {
         Map<String, Object> pathParams = Map.of(pathParameterName, pathParameterValue);
-        return postRequest(requestSpec, basePath, route, body, pathParams, null, file);
+        return postRequest(sharedRequestSpec(JSON, false), basePath, route, body, pathParams, null, file);
     }
     
     /**
@@ -182,7 +214,7 @@ public class Rest implements IRestService {
      * @return the response of the request.
      */
     public Response postRequest(IEndpoint basePath, String route, Object body, File file, Map<String, Object> queryParams) {
-        return postRequest(requestSpec, basePath, route, body, null, queryParams, file);
+        return postRequest(sharedRequestSpec(JSON, false), basePath, route, body, null, queryParams, file);
     }
     
     /**
@@ -198,7 +230,7 @@ public class Rest implements IRestService {
      */
     public Response postRequest(IEndpoint basePath, String route, Object body, File file, String queryParameterName, Object queryParameterValue) {
         Map<String, Object> queryParams = Map.of(queryParameterName, queryParameterValue);
-        return postRequest(requestSpec, basePath, route, body, null, queryParams, file);
+        return postRequest(sharedRequestSpec(JSON, false), basePath, route, body, null, queryParams, file);
     }
     
     /**
@@ -221,7 +253,42 @@ public class Rest implements IRestService {
      * @return the response from the GET request
      */
     public Response getRequest(IEndpoint basePath, String route, ContentType contentType) {
-        return getRequest(getRequestSpec(contentType), basePath, route, null, null, null, null);
+        return getRequest(sharedRequestSpec(contentType, false), basePath, route, null, null, null, null);
+    }
+    
+    /**
+     * Sends a POST request with a body asynchronously.
+     *
+     * @param basePath the base path of the endpoint.
+     * @param route    the route of the endpoint.
+     * @param body     the request body.
+     * @return a future completed with the response of the request.
+     */
+    public CompletableFuture<Response> postRequestAsync(IEndpoint basePath, String route, Object body) {
+        return postRequestAsync(sharedRequestSpec(JSON, false), basePath, route, body, null, null, null);
+    }
+    
+    /**
+     * Sends a GET request asynchronously.
+     *
+     * @param basePath the base path of the endpoint.
+     * @param route    the route of the endpoint.
+     * @return a future completed with the response of the request.
+     */
+    public CompletableFuture<Response> getRequestAsync(IEndpoint basePath, String route) {
+        return getRequestAsync(sharedRequestSpec(JSON, false), basePath, route, null, null, null, null);
+    }
+    
+    /**
+     * Sends a GET request with path parameters asynchronously.
+     *
+     * @param basePath   the base path of the endpoint.
+     * @param route      the route of the endpoint.
+     * @param pathParams the path parameters of the endpoint.
+     * @return a future completed with the response of the request.
+     */
+    public CompletableFuture<Response> getRequestWithPathParamsAsync(IEndpoint basePath, String route, Map<String, Object> pathParams) {
+        return getRequestAsync(sharedRequestSpec(JSON, false), basePath, route, null, pathParams, null, null);
     }
     
     /**
@@ -233,7 +300,7 @@ public class Rest implements IRestService {
      * @return the response of the request.
      */
     public Response getRequestWithQueryParams(IEndpoint basePath, String route, Map<String, Object> queryParams) {
-        return getRequest(requestSpec, basePath, route, null, null, queryParams, null);
+        return getRequest(sharedRequestSpec(JSON, false), basePath, route, null, null, queryParams, null);
     }
     
     /**
@@ -272,7 +339,7 @@ public class Rest implements IRestService {
      * @return the response of the GET request
      */
     public Response getRequestWithPathParams(IEndpoint basePath, String route, Map<String, Object> pathParams, ContentType contentType) {
-        return getRequest(getRequestSpec(contentType), basePath, route, null, pathParams, null, null);
+        return getRequest(sharedRequestSpec(contentType, false), basePath, route, null, pathParams, null, null);
     }
     
     /**
@@ -299,7 +366,7 @@ public class Rest implements IRestService {
      * @return the response of the request.
      */
     public Response putRequest(IEndpoint basePath, String route, Object body, Map<String, Object> pathParams) {
-        return putRequest(requestSpec, basePath, route, body, pathParams, null, null);
+        return putRequest(sharedRequestSpec(JSON, false), basePath, route, body, pathParams, null, null);
     }
     
     /**
@@ -326,7 +393,7 @@ public class Rest implements IRestService {
      * @return the Response object returned by the REST endpoint
      */
     public Response putRequest(IEndpoint basePath, String route, Map<String, Object> pathParams) {
-        return putRequest(requestSpec, basePath, route, null, pathParams, null, null);
+        return putRequest(sharedRequestSpec(JSON, false), basePath, route, null, pathParams, null, null);
     }
     
     /**
@@ -340,7 +407,7 @@ public class Rest implements IRestService {
      */
     public Response putRequest(IEndpoint basePath, String route, String pathParameterName, Object pathParameterValue) {
         Map<String, Object> pathParams = Map.of(pathParameterName, pathParameterValue);
-        return putRequest(requestSpec, basePath, route, null, pathParams, null, null);
+        return putRequest(sharedRequestSpec(JSON, false), basePath, route, null, pathParams, null, null);
     }
     
     /**
@@ -361,7 +428,7 @@ public class Rest implements IRestService {
      * @return the response of the request
      */
     public Response deleteRequest(IEndpoint basePath, String route, Map<String, Object> pathParams) {
-        return deleteRequest(requestSpec, basePath, route, null, pathParams, null, null);
+        return deleteRequest(sharedRequestSpec(JSON, false), basePath, route, null, pathParams, null, null);
     }
     
     /**
@@ -388,7 +455,7 @@ public class Rest implements IRestService {
      * @return the response received from the server
      */
     public Response deleteRequest(IEndpoint basePath, String route, Object body, Map<String, Object> pathParams) {
-        return deleteRequest(requestSpec, basePath, route, body, pathParams, null, null);
+        return deleteRequest(sharedRequestSpec(JSON, false), basePath, route, body, pathParams, null, null);
     }
     
     /**
@@ -408,12 +475,14 @@ public class Rest implements IRestService {
     
     /**
      * Retrieves the request specification with the specified content type.
+     * The specification is a copy of the one built once per base URI and content type and shared by all the Rest instances,
+     * so callers can change it without affecting other requests.
      *
      * @param contentType the content type to set for the request specification
      * @return the request specification with the specified content type
      */
     public RequestSpecification getRequestSpec(ContentType contentType) {
-        return getRequestSpec().contentType(contentType);
+        return RestAssured.given(sharedRequestSpec(contentType, false));
     }
     
     /**
@@ -422,31 +491,99 @@ public class Rest implements IRestService {
      * @return the request specification.
      */
     public RequestSpecification getRequestSpec() {
+        return getRequestSpec(JSON);
+    }
+    
+    /**
+     * Retrieves the request specification for requests whose response body is streamed.
+     * It leaves out the Allure filter, which reads the whole response body to attach it to the report.
+     *
+     * @return the streaming request specification
+     */
+    public RequestSpecification getStreamingRequestSpec() {
+        return RestAssured.given(sharedRequestSpec(JSON, true));
+    }
+    
+    /**
+     * Retrieves the request specification for the repeated calls of a latency measurement, such as the samples of an @APITest.
+     * It leaves out the exchange capture and Allure attachment filters, so the calls neither fill the captured exchanges
+     * of the test nor add attachments to the report.
+     *
+     * @return the sampling request specification
+     */
+    public RequestSpecification getSamplingRequestSpec() {
+        return RestAssured.given(sharedRequestSpec(JSON, false, false));
+    }
+    
+    /**
+     * Returns the request specification shared by all the Rest instances for the current base URI and content type.
+     * It must stay read-only: it is only passed to createRequest and sendStreamingUpload, which merge it into a new specification.
+     *
+     * @param contentType the content type of the requests
+     * @param streaming   true to leave the response body unread for streaming
+     * @return the shared request specification
+     */
+    private RequestSpecification sharedRequestSpec(ContentType contentType, boolean streaming) {
+        return sharedRequestSpec(contentType, streaming, true);
+    }
+    
+    private RequestSpecification sharedRequestSpec(ContentType contentType, boolean streaming, boolean reported) {
+        String baseUri = secretsConfig.getEnvironment() == Environment.DEV ?
+                secretsConfig.getRestBaseUri() :
+                secretsConfig.getRestApiUrl();
+        // The log mode is part of the key, so a reloaded environment file switches the logging of the next requests
+        return REQUEST_SPECS.computeIfAbsent(baseUri + "|" + contentType + "|" + streaming + "|" + reported + "|" + secretsConfig.getHttpLogMode(),
+                key -> buildRequestSpec(baseUri, contentType, streaming, reported));
+    }
+    
+    /**
+     * Builds the request specification shared by all the requests to a base URI with a content type.
+     *
+     * @param baseUri     the base URI of the requests
+     * @param contentType the content type of the requests
+     * @param streaming   true to leave the response body unread for streaming
+     * @param reported    false to leave out the exchange capture and Allure attachment filters
+     * @return the request specification.
+     */
+    private RequestSpecification buildRequestSpec(String baseUri, ContentType contentType, boolean streaming, boolean reported) {
         /*
          * Uncomment code and use it if needed, not all applications need a token
          * or the headers are specific to workview application
          * nice to have is the allure config to blacklist whatever header you want to not be visible
+         * if a token is added, it has to become part of the REQUEST_SPECS key
          *
          * */
         //String accessToken = new Authenticator().generateToken();
         RequestSpecBuilder requestSpecBuilder = new RequestSpecBuilder()
+                .setConfig(HttpConnectionPool.get().restAssuredConfig().objectMapperConfig(SharedObjectMapper.restAssuredConfig()))
                 .setRelaxedHTTPSValidation()
-                .setBaseUri(secretsConfig.getRestApiUrl())
+                .setBaseUri(baseUri)
 //                .addHeader("Authorization", "Bearer " + accessToken)
 //                .addHeader("apiVersion", secretsProviderConfig.getApiVersion())
-                .setContentType(JSON)
 //                .setConfig(RestAssuredConfig.config().logConfig(LogConfig.logConfig().blacklistHeader("Authorization").and().enablePrettyPrinting(true)))
-                .addFilter(new AllureRestAssured())
-                .log(LogDetail.METHOD)
-                .log(LogDetail.URI)
-                .log(LogDetail.HEADERS)
-                .log(LogDetail.PARAMS)
-                .log(LogDetail.BODY);
-        
-        if (secretsConfig.getEnvironment() == Environment.DEV) {
-            requestSpecBuilder.setBaseUri(secretsConfig.getRestBaseUri());
-//            requestSpecBuilder.setBasePath(secretsConfig.getApiPath());
+                .setContentType(contentType);
+        if (ExchangeLog.isConsoleLogging()) {
+            requestSpecBuilder
+                    .log(LogDetail.METHOD)
+                    .log(LogDetail.URI)
+                    .log(LogDetail.HEADERS)
+                    .log(LogDetail.PARAMS)
+                    .log(LogDetail.BODY);
+        } else if (ExchangeLog.isCapturing() && reported) {
+            requestSpecBuilder.addFilter(streaming ? ExchangeCaptureFilter.streaming() : ExchangeCaptureFilter.get());
+        }
+        if (!streaming) {
+            // In on-failure mode the ExchangeLogListener attaches the captured exchanges of the failed tests only
+            if (!ExchangeLog.isCapturing() && reported) {
+                requestSpecBuilder.addFilter(AllureAttachmentFilter.get());
+            }
+            // Reads the whole response to measure it, streamed responses are still decoded on the fly by the client
+            requestSpecBuilder.addFilter(CompressionFilter.get());
         }
+        // Added after the Allure filter, so the report sees the exchange whatever transport sends it
+        requestSpecBuilder.addFilter(HttpTransportFilter.get());
+        
+//        requestSpecBuilder.setBasePath(secretsConfig.getApiPath());
         return requestSpecBuilder.build();
     }
     
@@ -590,6 +727,91 @@ public class Rest implements IRestService {
                 route);
     }
     
+    /**
+     * Sends a POST request asynchronously to the specified route with the given parameters.
+     *
+     * @param requestSpec the request specification
+     * @param basePath    the base path of the REST endpoint
+     * @param route       the route of the request
+     * @param body        the request body
+     * @param pathParams  the path parameters
+     * @param queryParams the query parameters
+     * @param file        the file to be sent with the request
+     * @return a future completed with the response of the request
+     */
+    @Override
+    public CompletableFuture<Response> postRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file) {
+        return sendRequestAsync(createRequest(requestSpec, basePath, route, body, pathParams, queryParams, file), Method.POST, route);
+    }
+    
+    /**
+     * Sends a GET request asynchronously to the specified route with the given parameters.
+     *
+     * @param requestSpec the request specification
+     * @param basePath    the base path of the REST endpoint
+     * @param route       the route of the request
+     * @param body        the request body
+     * @param pathParams  the path parameters
+     * @param queryParams the query parameters
+     * @param file        the file to be sent with the request
+     * @return a future completed with the response of the request
+     */
+    @Override
+    public CompletableFuture<Response> getRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file) {
+        return sendRequestAsync(createRequest(requestSpec, basePath, route, body, pathParams, queryParams, file), Method.GET, route);
+    }
+    
+    /**
+     * Sends a DELETE request asynchronously to the specified route with the given parameters.
+     *
+     * @param requestSpec the request specification
+     * @param basePath    the base path of the REST endpoint
+     * @param route       the route of the request
+     * @param body        the request body
+     * @param pathParams  the path parameters
+     * @param queryParams the query parameters
+     * @param file        the file to be sent with the request
+     * @return a future completed with the response of the request
+     */
+    @Override
+    public CompletableFuture<Response> deleteRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file) {
+        return sendRequestAsync(createRequest(requestSpec, basePath, route, body, pathParams, queryParams, file), Method.DELETE, route);
+    }
+    
+    /**
+     * Sends a PUT request asynchronously to the specified route with the given parameters.
+     *
+     * @param requestSpec the request specification
+     * @param basePath    the base path of the REST endpoint
+     * @param route       the route of the request
+     * @param body        the request body
+     * @param pathParams  the path parameters
+     * @param queryParams the query parameters
+     * @param file        the file to be sent with the request
+     * @return a future completed with the response of the request
+     */
+    @Override
+    public CompletableFuture<Response> putRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file) {
+        return sendRequestAsync(createRequest(requestSpec, basePath, route, body, pathParams, queryParams, file), Method.PUT, route);
+    }
+    
+    /**
+     * Sends a PATCH request asynchronously to the specified route with the given parameters.
+     *
+     * @param requestSpec the request specification
+     * @param basePath    the base path of the REST endpoint
+     * @param route       the route of the request
+     * @param body        the request body
+     * @param pathParams  the path parameters
+     * @param queryParams the query parameters
+     * @param file        the file to be sent with the request
+     * @return a future completed with the response of the request
+     */
+    @Override
+    public CompletableFuture<Response> patchRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file) {
+        return sendRequestAsync(createRequest(requestSpec, basePath, route, body, pathParams, queryParams, file), Method.PATCH, route);
+    }
+    
     /**
      * Creates a request specification with the given parameters.
      *
@@ -606,8 +828,12 @@ public class Rest implements IRestService {
     public RequestSpecification createRequest(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file) {
         RequestSpecification request = RestAssured.given(requestSpec)
                 .basePath(basePath.getPath());
-        if (body != null) {
-            request.body(body);
+        Object payload = PayloadCache.get().resolve(body);
+        if (payload instanceof byte[] bytes) {
+            // body(Object) would run the byte array through the object mapper
+            request.body(bytes);
+        } else if (payload != null) {
+            request.body(payload);
         }
         if (pathParams != null && !pathParams.isEmpty()) {
             request.pathParams(pathParams);
@@ -619,7 +845,8 @@ public class Rest implements IRestService {
             request.contentType(MULTIPART);
             request.multiPart("file", file);
             if (body != null) {
-                request.multiPart("payload", SerializationUtil.serialize(body, mapper), REST_CONTENT_TYPE);
+                String json = payload != body ? new String((byte[]) payload, StandardCharsets.UTF_8) : SerializationUtil.serialize(body);
+                request.multiPart("payload", json, REST_CONTENT_TYPE);
             }
         }
         return request;
@@ -635,33 +862,361 @@ public class Rest implements IRestService {
      */
     @Override
     public Response sendRequest(RequestSpecification request, Method method, String route) {
-        return getResponse(request, method, route);
+        Response response = getResponse(request, method, route);
+        this.contextData.setLastResponse(response);
+        this.contextData.setResponseTime(response.getTime());
+        this.contextData.setTransferSize(CompressionFilter.takeLastTransfer());
+        this.contextData.setPhaseTimings(PhaseTimer.takeLastTimings());
+        return response;
     }
     
     /**
-     * Retrieves the response for a given request.
+     * Sends a request asynchronously using the provided request specification, HTTP method, and route.
+     * The context data is not updated, since concurrent requests would overwrite each other's last response;
+     * use the response of the returned future instead.
+     *
+     * @param request the request specification
+     * @param method  the HTTP method
+     * @param route   the route to send the request to
+     * @return a future completed with the response received from the server
+     */
+    @Override
+    public CompletableFuture<Response> sendRequestAsync(RequestSpecification request, Method method, String route) {
+        return CompletableFuture.supplyAsync(() -> getResponse(request, method, route), ASYNC_REQUESTS);
+    }
+    
+    /**
+     * Sends a GET request and deserializes the response body straight from the connection into the given type.
+     *
+     * @param basePath the base path of the endpoint.
+     * @param route    the route of the endpoint.
+     * @param type     the class of the response body.
+     * @return the deserialized response body.
+     */
+    public <T> T getRequestAs(IEndpoint basePath, String route, Class<T> type) {
+        return sendRequestAs(createRequest(sharedRequestSpec(JSON, true), basePath, route, null, null, null, null), Method.GET, route, type);
+    }
+    
+    /**
+     * Sends a GET request and streams the elements of an array of the response body, e.g. the "data" of a list endpoint.
+     * The returned stream must be closed, preferably with try-with-resources, since it holds the connection.
+     *
+     * @param basePath  the base path of the endpoint.
+     * @param route     the route of the endpoint.
+     * @param arrayPath the dotted path of the array in the response body, null or empty for a root array.
+     * @param type      the class of the array elements.
+     * @return a lazy stream over the elements of the array.
+     */
+    public <T> Stream<T> getRequestAsStream(IEndpoint basePath, String route, String arrayPath, Class<T> type) {
+        return sendRequestAsStream(createRequest(sharedRequestSpec(JSON, true), basePath, route, null, null, null, null), Method.GET, route, arrayPath, type);
+    }
+    
+    /**
+     * Sends a request and deserializes the response body straight from the connection into the given type,
+     * without buffering or logging the body. The body is only read into memory if the response has an error status.
+     * Use a request created from getStreamingRequestSpec, other specifications buffer the body for the Allure report.
+     *
+     * @param request the request specification
+     * @param method  the HTTP method
+     * @param route   the route to send the request to
+     * @param type    the class of the response body
+     * @return the deserialized response body
+     * @throws HttpStatusException if the response has a 4xx or 5xx status
+     */
+    public <T> T sendRequestAs(RequestSpecification request, Method method, String route, Class<T> type) {
+        return SerializationUtil.deserialize(getStreamingResponse(request, method, route).asInputStream(), type);
+    }
+    
+    /**
+     * Sends a request and streams the elements of an array of the response body, parsing each element only when it is consumed.
+     * The returned stream must be closed, preferably with try-with-resources, since it holds the connection.
+     *
+     * @param request   the request specification
+     * @param method    the HTTP method
+     * @param route     the route to send the request to
+     * @param arrayPath the dotted path of the array in the response body, null or empty for a root array
+     * @param type      the class of the array elements
+     * @return a lazy stream over the elements of the array
+     * @throws HttpStatusException if the response has a 4xx or 5xx status
+     */
+    public <T> Stream<T> sendRequestAsStream(RequestSpecification request, Method method, String route, String arrayPath, Class<T> type) {
+        return SerializationUtil.streamArray(getStreamingResponse(request, method, route).asInputStream(), arrayPath, type);
+    }
+    
+    /**
+     * Uploads a file or synthetic content as the "file" part of a multipart POST, streaming it instead of buffering it.
+     *
+     * @param basePath the base path of the endpoint.
+     * @param route    the route of the endpoint.
+     * @param upload   the content to upload.
+     * @return the response object.
+     */
+    public Response postStreamingUpload(IEndpoint basePath, String route, UploadSource upload) {
+        return sendStreamingUpload(sharedRequestSpec(JSON, false), basePath, route, Method.POST, upload);
+    }
+    
+    /**
+     * Uploads a file or synthetic content as the "file" part of a multipart request.
+     * The part is read from its FileChannel, or generated, in the chunks the HTTP client writes and is sent with
+     * chunked transfer encoding, so uploads of any size use the same small amount of heap.
+     * The uploaded bytes and the upload time are stored in the context data and the throughput is logged.
+     *
+     * @param requestSpec the request specification to be used as a base
+     * @param basePath    the base path of the endpoint
+     * @param route       the route of the request
+     * @param method      the HTTP method of the request
+     * @param upload      the content to upload
+     * @return the response object
+     */
+    @Override
+    public Response sendStreamingUpload(RequestSpecification requestSpec, IEndpoint basePath, String route, Method method, UploadSource upload) {
+        try (CountingInputStream content = new CountingInputStream(upload.openStream())) {
+            RequestSpecification request = RestAssured.given(requestSpec)
+                    .basePath(basePath.getPath())
+                    .contentType(MULTIPART)
+                    .multiPart(new MultiPartSpecBuilder(content)
+                            .controlName("file")
+                            .fileName(upload.getFileName())
+                            .mimeType(upload.getMimeType())
+                            .build());
+            long start = System.nanoTime();
+            Response response = sendRequest(request, method, route);
+            long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            this.contextData.setUploadedBytes(content.getCount());
+            this.contextData.setUploadTime(millis);
+            logger.info("Uploaded {} bytes of {} in {} ms ({} MB/s)", content.getCount(), upload, millis,
+                    millis == 0 ? "n/a" : String.format("%.1f", content.getCount() / 1_048_576.0 / (millis / 1000.0)));
+            return response;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot upload " + upload, e);
+        }
+    }
+    
+    /**
+     * Downloads the response body of a GET request straight to a file.
+     *
+     * @param basePath the base path of the endpoint.
+     * @param route    the route of the endpoint.
+     * @param target   the file to write.
+     * @return the size and checksums of the downloaded file.
+     */
+    public DownloadResult downloadToFile(IEndpoint basePath, String route, Path target) {
+        return download(createRequest(sharedRequestSpec(JSON, true), basePath, route, null, null, null, null), Method.GET, route, target);
+    }
+    
+    /**
+     * Sends a request and transfers the response body to a file through a FileChannel,
+     * updating the SHA-256 digest and the CRC32 of the body as each chunk passes.
+     * Error responses are read and logged in full and thrown as an HttpStatusException.
+     * With the HTTP/2 transport the JDK client still receives the whole body in memory before it is written.
      *
      * @param request the request specification
      * @param method  the HTTP method of the request
      * @param route   the route of the request
-     * @return the response object
+     * @param target  the file to write, replaced if it exists
+     * @return the size and checksums of the downloaded file
+     * @throws HttpStatusException if the response has a 4xx or 5xx status
      */
-    private Response getResponse(RequestSpecification request, Method method, String route) {
+    @Override
+    public DownloadResult download(RequestSpecification request, Method method, String route, Path target) {
+        long start = System.nanoTime();
+        Response response = getStreamingResponse(request, method, route);
+        CRC32 crc32 = new CRC32();
+        MessageDigest sha256 = newSha256();
+        long size = 0;
+        try (ReadableByteChannel body = Channels.newChannel(
+                new DigestInputStream(new CheckedInputStream(response.asInputStream(), crc32), sha256));
+             FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long transferred;
+            while ((transferred = file.transferFrom(body, size, DOWNLOAD_CHUNK_BYTES)) > 0) {
+                size += transferred;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot download " + method + " " + route + " to " + target, e);
+        }
+        DownloadResult result = new DownloadResult(target, size, HexFormat.of().formatHex(sha256.digest()), crc32.getValue(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), response);
+        this.contextData.setLastDownload(result);
+        // The exchange ends when its body has been read, so its download phase is known only now
+        this.contextData.setPhaseTimings(PhaseTimer.takeLastTimings());
+        logger.info("Downloaded {}", result);
+        return result;
+    }
+    
+    /**
+     * Sends a batch of requests with the concurrency limit of the environment (http.batch.concurrency).
+     *
+     * @param requests the descriptors of the requests
+     * @return the responses in the order of the requests, with the aggregate timing of the batch
+     */
+    public BatchResult sendBatch(List<BatchRequest> requests) {
+        return sendBatch(requests, secretsConfig.getHttpBatchConcurrency());
+    }
+    
+    /**
+     * Sends a batch of requests, with at most the given number of requests in flight at any time.
+     * A failing request does not stop the batch, its exception is reported at its index of the result.
+     * As with the async requests, the context data is not updated.
+     *
+     * @param requests    the descriptors of the requests
+     * @param concurrency the maximum number of requests in flight
+     * @return the responses in the order of the requests, with the aggregate timing of the batch
+     */
+    public BatchResult sendBatch(List<BatchRequest> requests, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Batch concurrency must be at least 1, was " + concurrency);
+        }
+        Semaphore permits = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        List<CompletableFuture<Response>> futures = new ArrayList<>(requests.size());
+        for (BatchRequest request : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    return getResponse(
+                            createRequest(sharedRequestSpec(JSON, false),
+                                    request.getBasePath(),
+                                    request.getRoute(),
+                                    request.getBody(),
+                                    request.getPathParams(),
+                                    request.getQueryParams(),
+                                    request.getFile()),
+                            request.getMethod(),
+                            request.getRoute());
+                } finally {
+                    permits.release();
+                }
+            }, ASYNC_REQUESTS));
+        }
+        List<Response> responses = new ArrayList<>(requests.size());
+        List<Throwable> errors = new ArrayList<>(requests.size());
+        for (CompletableFuture<Response> future : futures) {
+            try {
+                responses.add(future.join());
+                errors.add(null);
+            } catch (CompletionException e) {
+                responses.add(null);
+                errors.add(e.getCause());
+            }
+        }
+        BatchResult result = new BatchResult(responses, errors, concurrency, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        logger.info("Batch finished: {}", result);
+        return result;
+    }
+    
+    /**
+     * Sends a request leaving the response body unread, so it can be streamed.
+     * Error responses are read and logged in full and thrown, they are still the last response of the context data.
+     *
+     * @param request the request specification
+     * @param method  the HTTP method of the request
+     * @param route   the route of the request
+     * @return the response object, with an unread body
+     * @throws HttpStatusException if the response has a 4xx or 5xx status
+     */
+    private Response getStreamingResponse(RequestSpecification request, Method method, String route) {
+        HttpExchangeEvent event = new HttpExchangeEvent();
+        event.begin();
+        long start = RunMetrics.startExchange();
+        int status = 0;
         Response response;
-        response = RestAssured.given(request)
-                .when()
-                .request(method, route)
-                .then()
-                .spec(responseSpec)
-                .log()
-                .status()
-                .and()
-                .log()
-                .body()
-                .extract()
-                .response();
+        try {
+            response = RestAssured.given(request)
+                    .when()
+                    .request(method, route);
+            status = response.getStatusCode();
+            event.commitStreamed(request, method.name(), route, this.contextData.getStepDescription(), response);
+        } finally {
+            // The body is streamed afterwards, the duration is the time to the response headers
+            RunMetrics.recordExchange("rest", method.name(), status, start);
+        }
         this.contextData.setLastResponse(response);
         this.contextData.setResponseTime(response.getTime());
+        if (ExchangeLog.isConsoleLogging()) {
+            logger.info("{} {} returned {}", method, route, response.getStatusLine());
+        }
+        if (response.getStatusCode() >= 400) {
+            String body = response.asString();
+            logger.error("{} {} failed with body: {}", method, route, body);
+            throw new HttpStatusException(method.name(), route, response.getStatusCode(), response.getStatusLine(), body);
+        }
         return response;
     }
+    
+    /**
+     * Retrieves the response for a given request.
+     *
+     * @param request the request specification
+     * @param method  the HTTP method of the request
+     * @param route   the route of the request
+     * @return the response object
+     */
+    private Response getResponse(RequestSpecification request, Method method, String route) {
+        HttpExchangeEvent event = new HttpExchangeEvent();
+        event.begin();
+        long start = RunMetrics.startExchange();
+        int status = 0;
+        try {
+            ValidatableResponse validatableResponse = RestAssured.given(request)
+                    .when()
+                    .request(method, route)
+                    .then()
+                    .spec(responseSpec);
+            if (ExchangeLog.isConsoleLogging()) {
+                validatableResponse
+                        .log()
+                        .status()
+                        .and()
+                        .log()
+                        .body();
+            }
+            Response response = validatableResponse.extract().response();
+            status = response.getStatusCode();
+            event.commit(request, method.name(), route, this.contextData.getStepDescription(), response);
+            return response;
+        } finally {
+            RunMetrics.recordExchange("rest", method.name(), status, start);
+        }
+    }
+    
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Counts the bytes the HTTP client reads from an upload.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+        
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+        
+        private long getCount() {
+            return count;
+        }
+    }
 }
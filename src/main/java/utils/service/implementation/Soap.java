@@ -5,10 +5,19 @@ import domain.SoapActionEnum;
 import domain.SoapBasePathEnum;
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
 import models.ContextData;
 import org.slf4j.Logger;
 import utils.config.EnvDataConfig;
 import utils.factories.SoapServiceObjectFactory;
+import utils.jfr.HttpExchangeEvent;
+import utils.metrics.RunMetrics;
+import utils.service.http.CompressionFilter;
+import utils.service.http.ExchangeCaptureFilter;
+import utils.service.http.ExchangeLog;
+import utils.service.http.HttpConnectionPool;
+import utils.service.http.HttpTransportFilter;
+import utils.service.http.PhaseTimer;
 import utils.service.interfaces.ISoapService;
 
 /**
@@ -78,20 +87,58 @@ public class Soap implements ISoapService {
      */
     @Override
     public Response postRequest(String baseUri, String basePath, String soapAction, Object xmlBody) {
-        Response response = RestAssured.given()
-                .when()
-                .log()
-                .all()
-                .relaxedHTTPSValidation()
-                .request()
-                .baseUri(baseUri)
-                .basePath(basePath)
-                .header("SOAPAction", soapAction)
-                .header("Content-Type", SOAP_CONTENT_TYPE)
-                .body(xmlBody)
-                .post();
+        return post(baseUri, basePath, soapAction, xmlBody, true);
+    }
+    
+    /**
+     * Makes a POST request to the specified SOAP service for a latency measurement, such as the samples of an @APITest.
+     * The exchange is not captured for the failure log.
+     *
+     * @param basePath   the path of the service
+     * @param soapAction the SOAP action to be performed
+     * @param xmlBody    the XML body of the request
+     * @return a Response object representing the response of the POST request
+     */
+    @Override
+    public Response postSamplingRequest(String basePath, String soapAction, Object xmlBody) {
+        return post(envDataConfig.getSoapApiUrl(), basePath, soapAction, xmlBody, false);
+    }
+    
+    private Response post(String baseUri, String basePath, String soapAction, Object xmlBody, boolean reported) {
+        HttpExchangeEvent event = new HttpExchangeEvent();
+        event.begin();
+        RequestSpecification request = RestAssured.given()
+                .config(HttpConnectionPool.get().restAssuredConfig());
+        if (ExchangeLog.isConsoleLogging()) {
+            request.log().all();
+        } else if (ExchangeLog.isCapturing() && reported) {
+            request.filter(ExchangeCaptureFilter.get());
+        }
+        long start = RunMetrics.startExchange();
+        int status = 0;
+        Response response;
+        try {
+            response = request
+                    .filter(CompressionFilter.get())
+                    .filter(HttpTransportFilter.get())
+                    .when()
+                    .relaxedHTTPSValidation()
+                    .request()
+                    .baseUri(baseUri)
+                    .basePath(basePath)
+                    .header("SOAPAction", soapAction)
+                    .header("Content-Type", SOAP_CONTENT_TYPE)
+                    .body(xmlBody)
+                    .post();
+            status = response.getStatusCode();
+        } finally {
+            RunMetrics.recordExchange("soap", "POST", status, start);
+        }
+        event.commit(request, "POST", "", this.contextData.getStepDescription(), response);
         this.contextData.setLastResponse(response);
         this.contextData.setResponseTime(response.getTime());
+        this.contextData.setTransferSize(CompressionFilter.takeLastTransfer());
+        this.contextData.setPhaseTimings(PhaseTimer.takeLastTimings());
         logger.info("Step: {} + Response time: {}", this.contextData.getStepDescription(), this.contextData.getResponseTime());
         return response;
     }
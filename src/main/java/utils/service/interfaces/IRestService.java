@@ -6,10 +6,14 @@ import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.ResponseSpecification;
 import models.ContextData;
+import models.DownloadResult;
+import models.UploadSource;
 import utils.factories.interfaces.IRestServiceFactory;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This interface represents a REST service and extends the BaseService interface.
@@ -127,13 +131,128 @@ public interface IRestService {
      */
     Response sendRequest(RequestSpecification request, Method method, String route);
     
+    /**
+     * Uploads a file or synthetic content as the "file" part of a multipart request, streaming it with chunked transfer encoding.
+     *
+     * @param requestSpec the request specification object
+     * @param basePath    the base path of the REST endpoint
+     * @param route       the route of the API endpoint
+     * @param method      the HTTP method used for the request
+     * @param upload      the content to upload
+     * @return the response received from the server
+     */
+    Response sendStreamingUpload(RequestSpecification requestSpec, IEndpoint basePath, String route, Method method, UploadSource upload);
+    
+    /**
+     * Sends a request and streams the response body straight to a file, computing its SHA-256 and CRC32 while it is written.
+     * The body is never held in memory, so the request should be created from the streaming request specification.
+     *
+     * @param request the request specification object
+     * @param method  the HTTP method used for the request
+     * @param route   the route of the API endpoint
+     * @param target  the file to write, replaced if it exists
+     * @return the size and checksums of the downloaded file
+     * @throws utils.service.http.HttpStatusException if the response has a 4xx or 5xx status
+     */
+    DownloadResult download(RequestSpecification request, Method method, String route, Path target);
+    
+    /**
+     * Sends a request asynchronously using the provided request specification, HTTP method, and route.
+     * The calling thread returns immediately, so independent requests can be in flight at the same time.
+     *
+     * @param request the request specification object
+     * @param method  the HTTP method used for the request
+     * @param route   the route of the API endpoint
+     * @return a future completed with the response received from the server
+     */
+    CompletableFuture<Response> sendRequestAsync(RequestSpecification request, Method method, String route);
+    
+    /**
+     * Sends a POST request asynchronously to the specified route with the given parameters.
+     *
+     * @param requestSpec the RequestSpecification object for the HTTP request
+     * @param basePath    the base path for the REST endpoint
+     * @param route       the route for the HTTP request
+     * @param body        the body of the HTTP request
+     * @param pathParams  the path parameters for the HTTP request
+     * @param queryParams the query parameters for the HTTP request
+     * @param file        the file to be sent with the HTTP request
+     * @return a future completed with the response of the HTTP request
+     */
+    CompletableFuture<Response> postRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file);
+    
+    /**
+     * Sends a GET request asynchronously to the specified route with the given parameters.
+     *
+     * @param requestSpec the request specification for the API call
+     * @param basePath    the base path of the REST endpoint
+     * @param route       the route of the API call
+     * @param body        the body of the API call
+     * @param pathParams  the path parameters of the API call
+     * @param queryParams the query parameters of the API call
+     * @param file        the file to be included in the API call
+     * @return a future completed with the response of the API call
+     */
+    CompletableFuture<Response> getRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file);
+    
+    /**
+     * Sends a DELETE request asynchronously to the specified route with the given parameters.
+     *
+     * @param requestSpec the request specification object
+     * @param basePath    the base path of the REST endpoint
+     * @param route       the route of the resource
+     * @param body        the request body
+     * @param pathParams  the path parameters
+     * @param queryParams the query parameters
+     * @param file        the file to be sent with the request
+     * @return a future completed with the response received from the server
+     */
+    CompletableFuture<Response> deleteRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file);
+    
+    /**
+     * Sends a PUT request asynchronously to the specified route with the given parameters.
+     *
+     * @param requestSpec the request specification object
+     * @param basePath    the base path of the REST endpoint
+     * @param route       the route for the request
+     * @param body        the request body object
+     * @param pathParams  the path parameters for the request
+     * @param queryParams the query parameters for the request
+     * @param file        the file to be uploaded with the request
+     * @return a future completed with the response object
+     */
+    CompletableFuture<Response> putRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file);
+    
+    /**
+     * Sends a PATCH request asynchronously to the specified endpoint with the given parameters.
+     *
+     * @param requestSpec the RequestSpecification object
+     * @param basePath    the base path for the REST endpoint
+     * @param route       the route for the REST endpoint
+     * @param body        the request body object
+     * @param pathParams  the path parameters for the REST endpoint
+     * @param queryParams the query parameters for the REST endpoint
+     * @param file        the file object
+     * @return a future completed with the Response object
+     */
+    CompletableFuture<Response> patchRequestAsync(RequestSpecification requestSpec, IEndpoint basePath, String route, Object body, Map<String, Object> pathParams, Map<String, Object> queryParams, File file);
+    
     /**
      * Gets the request specification to use in the requests, with a specific country code.
+     * Each call returns a new specification, so the caller can change it without affecting other requests.
      *
      * @return the request specification.
      */
     RequestSpecification getRequestSpec();
     
+    /**
+     * Gets the request specification for the repeated calls of a latency measurement,
+     * which are neither captured for the failure log nor attached to the Allure report.
+     *
+     * @return the request specification.
+     */
+    RequestSpecification getSamplingRequestSpec();
+    
     
     /**
      * Gets the response specification to use in the requests.
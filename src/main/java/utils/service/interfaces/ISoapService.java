@@ -45,4 +45,15 @@ public interface ISoapService {
      * @return a Response object representing the response of the POST request
      */
     Response postRequest(String basePath, String soapAction, Object xmlBody);
+    
+    /**
+     * Makes a POST request to the specified SOAP service for a latency measurement,
+     * which is not captured for the failure log.
+     *
+     * @param basePath   the path of the service
+     * @param soapAction the SOAP action to be performed
+     * @param xmlBody    the XML body of the request
+     * @return a Response object representing the response of the POST request
+     */
+    Response postSamplingRequest(String basePath, String soapAction, Object xmlBody);
 }
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import io.qameta.allure.restassured.AllureRestAssured;
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.filter.log.LogDetail;
+import io.restassured.specification.RequestSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.http.ContentType.JSON;
+
+/**
+ * Compares the request specification Rest used to build for every request with the merge of the specification
+ * it now builds once per base URI and content type, as createRequest does.
+ * <p>
+ * Run it with: mvn -B test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmarks.RequestSpecBenchmark
+ * <br>
+ * The gc.alloc.rate.norm line of the GC profiler gives the bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestSpecBenchmark {
+    
+    private static final String BASE_URI = "https://reqres.in";
+    private static final String BASE_PATH = "/api/users";
+    private static final Map<String, Object> PATH_PARAMS = Map.of("id", 2);
+    
+    private RequestSpecification sharedSpec;
+    
+    @Setup
+    public void setUp() {
+        sharedSpec = legacyRequestSpec();
+    }
+    
+    @Benchmark
+    public RequestSpecification buildSpecPerRequest() {
+        return RestAssured.given(legacyRequestSpec())
+                .basePath(BASE_PATH)
+                .pathParams(PATH_PARAMS);
+    }
+    
+    @Benchmark
+    public RequestSpecification mergeSharedSpec() {
+        return RestAssured.given(sharedSpec)
+                .basePath(BASE_PATH)
+                .pathParams(PATH_PARAMS);
+    }
+    
+    // The specification Rest.getRequestSpec built on every call
+    private static RequestSpecification legacyRequestSpec() {
+        return new RequestSpecBuilder()
+                .setRelaxedHTTPSValidation()
+                .setBaseUri(BASE_URI)
+                .setContentType(JSON)
+                .addFilter(new AllureRestAssured())
+                .log(LogDetail.METHOD)
+                .log(LogDetail.URI)
+                .log(LogDetail.HEADERS)
+                .log(LogDetail.PARAMS)
+                .log(LogDetail.BODY)
+                .build();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RequestSpecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import models.GeneralResponseDTO;
+import models.SupportDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import services.rest.users.UserDTO;
+import services.rest.users.UserResponseDTO;
+import utils.common.SerializationUtil;
+import utils.common.SharedObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the (de)serialization of the services.rest DTOs with a mapper built per Rest instance, as the framework used to do,
+ * with the shared mapper, and with the cached readers and writers of the shared mapper.
+ * <p>
+ * Run it with: mvn -B test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmarks.SerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    
+    private UserResponseDTO users;
+    private String usersJson;
+    private ObjectMapper sharedMapper;
+    private ObjectReader usersReader;
+    private ObjectWriter usersWriter;
+    
+    @Setup
+    public void setUp() {
+        List<UserDTO> data = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            UserDTO user = new UserDTO();
+            user.setId(i);
+            user.setEmail("user" + i + "@reqres.in");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setAvatar("https://reqres.in/img/faces/" + i + "-image.jpg");
+            data.add(user);
+        }
+        SupportDTO support = new SupportDTO();
+        support.setUrl("https://reqres.in/#support-heading");
+        support.setText("To keep ReqRes free, contributions towards server costs are appreciated!");
+        GeneralResponseDTO general = new GeneralResponseDTO();
+        general.setPage(1);
+        general.setPerPage(12);
+        general.setTotal(12);
+        general.setTotalPages(1);
+        general.setSupport(support);
+        users = new UserResponseDTO();
+        users.setGeneralResponseDTO(general);
+        users.setData(data);
+        usersJson = SerializationUtil.serialize(users);
+        sharedMapper = SharedObjectMapper.get();
+        usersReader = SharedObjectMapper.readerFor(UserResponseDTO.class);
+        usersWriter = SharedObjectMapper.writerFor(UserResponseDTO.class);
+    }
+    
+    @Benchmark
+    public String serializeWithNewMapper() throws Exception {
+        return newMapper().writeValueAsString(users);
+    }
+    
+    @Benchmark
+    public String serializeWithSharedMapper() throws Exception {
+        return sharedMapper.writeValueAsString(users);
+    }
+    
+    @Benchmark
+    public String serializeWithCachedWriter() throws Exception {
+        return usersWriter.writeValueAsString(users);
+    }
+    
+    @Benchmark
+    public UserResponseDTO deserializeWithNewMapper() throws Exception {
+        return newMapper().readValue(usersJson, UserResponseDTO.class);
+    }
+    
+    @Benchmark
+    public UserResponseDTO deserializeWithSharedMapper() throws Exception {
+        return sharedMapper.readValue(usersJson, UserResponseDTO.class);
+    }
+    
+    @Benchmark
+    public UserResponseDTO deserializeWithCachedReader() throws Exception {
+        return usersReader.readValue(usersJson);
+    }
+    
+    private static ObjectMapper newMapper() {
+        // Same configuration with empty serializer caches, like the mapper each Rest instance used to build
+        return SharedObjectMapper.get().copy();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utils.config.TestDataIndex;
+
+import java.util.Enumeration;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the parameterExists and getStringParameter lookups of TestDataConfig on the TestDataIndex
+ * with the scan of the test case properties through getParameters(prefix) that TestDataConfig used to do.
+ * <p>
+ * Run it with: mvn -B test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmarks.TestDataIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TestDataIndexBenchmark {
+    
+    private static final int TEST_CASES = 20;
+    private static final String TEST_CASE = "TC_API_01_010";
+    
+    @Param({"10", "100", "1000"})
+    private int parametersPerTestCase;
+    
+    private Properties legacyTestData;
+    private TestDataIndex testDataIndex;
+    private String parameter;
+    
+    @Setup
+    public void setUp() {
+        Properties file = new Properties();
+        for (int testCase = 0; testCase < TEST_CASES; testCase++) {
+            for (int i = 0; i < parametersPerTestCase; i++) {
+                file.setProperty(String.format("TC_API_01_%03d.param%d", testCase, i), "value" + i);
+            }
+        }
+        legacyTestData = legacyTestCaseData(file, TEST_CASE);
+        testDataIndex = TestDataIndex.of(file).view(TEST_CASE);
+        parameter = "param" + parametersPerTestCase / 2;
+    }
+    
+    @Benchmark
+    public boolean parameterExistsWithScan() {
+        return !legacyGetParameters(legacyTestData, parameter).isEmpty();
+    }
+    
+    @Benchmark
+    public boolean parameterExistsWithIndex() {
+        return testDataIndex.contains(parameter);
+    }
+    
+    @Benchmark
+    public String getStringParameterWithScan() {
+        return parameterExistsWithScan() ? legacyTestData.getProperty(parameter) : null;
+    }
+    
+    @Benchmark
+    public String getStringParameterWithIndex() {
+        return testDataIndex.contains(parameter) ? testDataIndex.get(parameter) : null;
+    }
+    
+    // The test case slice TestDataConfig copied out of the test data file
+    private static Properties legacyTestCaseData(Properties file, String prefix) {
+        Properties result = new Properties();
+        Enumeration<?> names = file.propertyNames();
+        while (names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            if (name.indexOf(prefix) == 0) {
+                result.put(name.substring(prefix.length() + 1), file.get(name));
+            }
+        }
+        return result;
+    }
+    
+    // The scan TestDataConfig.getParameters(prefix) ran on every parameterExists and getStringParameter
+    private static Properties legacyGetParameters(Properties params, String prefix) {
+        Properties targetParameters = new Properties();
+        Enumeration<?> allParameters = params.propertyNames();
+        while (allParameters.hasMoreElements()) {
+            String parameter = (String) allParameters.nextElement();
+            if (parameter.startsWith(prefix)) {
+                if (parameter.length() == prefix.length()) {
+                    targetParameters.put(parameter, params.get(parameter));
+                } else if (parameter.substring(prefix.length()).startsWith(".")) {
+                    targetParameters.put(parameter.substring(prefix.length() + 1), params.get(parameter));
+                }
+            }
+        }
+        return targetParameters;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TestDataIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
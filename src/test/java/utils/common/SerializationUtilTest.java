@@ -0,0 +1,39 @@
+package utils.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class SerializationUtilTest {
+    
+    @Test(description = "streamArray of an empty root array is an empty stream")
+    public void streamArrayOfEmptyRootArray() {
+        try (Stream<JsonNode> elements = SerializationUtil.streamArray(json("[]"), null, JsonNode.class)) {
+            Assert.assertEquals(elements.count(), 0L);
+        }
+    }
+    
+    @Test(description = "streamArray of an empty nested array is an empty stream")
+    public void streamArrayOfEmptyNestedArray() {
+        try (Stream<JsonNode> elements = SerializationUtil.streamArray(json("{\"page\":1,\"data\":[],\"total\":0}"), "data", JsonNode.class)) {
+            Assert.assertEquals(elements.count(), 0L);
+        }
+    }
+    
+    @Test(description = "streamArray of a nested array streams every element")
+    public void streamArrayOfNestedArray() {
+        try (Stream<JsonNode> elements = SerializationUtil.streamArray(json("{\"data\":[{\"id\":1},{\"id\":2}],\"total\":2}"), "data", JsonNode.class)) {
+            Assert.assertEquals(elements.map(element -> element.get("id").asInt()).toList(), List.of(1, 2));
+        }
+    }
+    
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
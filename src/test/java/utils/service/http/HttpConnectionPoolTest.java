@@ -0,0 +1,88 @@
+package utils.service.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.RestAssured;
+import io.restassured.config.HttpClientConfig;
+import org.apache.http.client.HttpClient;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.apache.http.HttpStatus.SC_OK;
+
+public class HttpConnectionPoolTest {
+    
+    private static final String BODY = "{\"data\":\"" + "x".repeat(4096) + "\"}";
+    
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    
+    @BeforeClass(alwaysRun = true)
+    public void startServer() throws IOException {
+        byte[] gzipped = gzip(BODY);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/gzip", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(SC_OK, gzipped.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(gzipped);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(10);
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+    
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+    
+    @Test(description = "Concurrent requests through the shared pool decode their gzip responses", invocationCount = 200, threadPoolSize = 10)
+    public void decodesGzipResponsesOfConcurrentRequests() {
+        String body = RestAssured.given()
+                .config(HttpConnectionPool.get().restAssuredConfig())
+                .baseUri("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort())
+                .get("/gzip")
+                .then()
+                .statusCode(SC_OK)
+                .extract()
+                .asString();
+        Assert.assertEquals(body, BODY);
+    }
+    
+    @Test(description = "Each thread sends its requests through its own HttpClient, which RestAssured changes on every request")
+    public void givesEachThreadItsOwnHttpClient() throws Exception {
+        HttpClientConfig httpClientConfig = HttpConnectionPool.get().restAssuredConfig().getHttpClientConfig();
+        HttpClient client = httpClientConfig.httpClientInstance();
+        Assert.assertSame(httpClientConfig.httpClientInstance(), client);
+        
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        try {
+            Assert.assertNotSame(otherThread.submit(httpClientConfig::httpClientInstance).get(), client);
+        } finally {
+            otherThread.shutdownNow();
+        }
+    }
+    
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+}